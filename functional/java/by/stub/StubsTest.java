@@ -157,6 +157,27 @@ public class StubsTest {
       Assert.assertEquals(HttpStatus.OK_200, response.getStatusCode());
    }
 
+   @Test
+   public void should_ReturnFavicon_WhenGetRequestMadeToStubsPort() throws Exception {
+
+      final String requestUrl = String.format("%s%s", stubsUrlAsString, "/favicon.ico");
+      final HttpResponse response = constructHttpRequest("GET", requestUrl).execute();
+
+      Assert.assertEquals(HttpStatus.OK_200, response.getStatusCode());
+      Assert.assertEquals("image/x-icon", response.getContentType());
+   }
+
+   @Test
+   public void should_NotServeClassPathResources_OtherThanStaticAssets() throws Exception {
+
+      final String requestUrl = String.format("%s%s", stubsUrlAsString, "/admin-index.html");
+      final HttpResponse response = constructHttpRequest("GET", requestUrl).execute();
+      final String responseContentAsString = response.parseAsString().trim();
+
+      Assert.assertEquals(HttpStatus.NOT_FOUND_404, response.getStatusCode());
+      Assert.assertTrue(responseContentAsString.contains("No data found for GET request at URI /admin-index.html"));
+   }
+
    @Test
    public void should_ReturnAllProducts_WhenGetRequestMade() throws Exception {
 
@@ -0,0 +1,123 @@
+package by.stub.server;
+
+import by.stub.cli.ANSITerminal;
+import by.stub.cli.CommandLineInterpreter;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SslConnectorTest {
+
+   private static final int CLIENT_PORT = 6992;
+   private static final int SSL_PORT = 6993;
+   private static final int ADMIN_PORT = 6999;
+   // Blocking connector would hold a pool thread for each of them
+   private static final int IDLE_CONNECTIONS = 50;
+   private static final int MAX_THREAD_GROWTH = 10;
+
+   private static JettyManager jettyManager;
+   private static SSLSocketFactory sslSocketFactory;
+
+   @BeforeClass
+   public static void beforeClass() throws Exception {
+
+      ANSITerminal.muteConsole(true);
+
+      final URL url = SslConnectorTest.class.getResource("/yaml/stubs.data.yaml");
+      Assert.assertNotNull(url);
+
+      final String[] args = new String[]{"-m", "-s", String.valueOf(CLIENT_PORT), "-a", String.valueOf(ADMIN_PORT),
+         "-t", String.valueOf(SSL_PORT), "-d", url.getFile(), "--sslacceptors", "1", "--sslsessioncache", "100"};
+      CommandLineInterpreter.parseCommandLine(args);
+
+      final Map<String, String> params = new HashMap<String, String>();
+      params.put(CommandLineInterpreter.OPTION_CLIENTPORT, String.valueOf(CLIENT_PORT));
+      params.put(CommandLineInterpreter.OPTION_SSLPORT, String.valueOf(SSL_PORT));
+      params.put(CommandLineInterpreter.OPTION_ADMINPORT, String.valueOf(ADMIN_PORT));
+      params.put(CommandLineInterpreter.OPTION_SSL_ACCEPTORS, "1");
+      params.put(CommandLineInterpreter.OPTION_SSL_SESSION_CACHE, "100");
+
+      jettyManager = new JettyManagerFactory().construct(url.getFile(), params);
+      jettyManager.startJetty();
+
+      final SSLContext sslContext = SSLContext.getInstance("TLS");
+      sslContext.init(null, new TrustManager[]{new X509TrustManager() {
+         @Override
+         public void checkClientTrusted(final X509Certificate[] chain, final String authType) {
+         }
+
+         @Override
+         public void checkServerTrusted(final X509Certificate[] chain, final String authType) {
+         }
+
+         @Override
+         public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+         }
+      }}, null);
+      sslSocketFactory = sslContext.getSocketFactory();
+   }
+
+   @AfterClass
+   public static void afterClass() throws Exception {
+      jettyManager.stopJetty();
+   }
+
+   @Test
+   public void shouldHoldIdleSslConnections_WithBoundedThreadCount() throws Exception {
+
+      Assert.assertTrue(makeRequest().startsWith("HTTP/1.1 200"));
+      final int threadCountBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+      final List<SSLSocket> idleConnections = new ArrayList<SSLSocket>(IDLE_CONNECTIONS);
+      try {
+         for (int idx = 0; idx < IDLE_CONNECTIONS; idx++) {
+            final SSLSocket sslSocket = (SSLSocket) sslSocketFactory.createSocket("localhost", SSL_PORT);
+            idleConnections.add(sslSocket);
+            sslSocket.setSoTimeout(10000);
+            sslSocket.startHandshake();
+         }
+
+         final int threadGrowth = ManagementFactory.getThreadMXBean().getThreadCount() - threadCountBefore;
+         Assert.assertTrue("Thread count grew by " + threadGrowth, threadGrowth < MAX_THREAD_GROWTH);
+
+         Assert.assertTrue(makeRequest().startsWith("HTTP/1.1 200"));
+      } finally {
+         for (final SSLSocket sslSocket : idleConnections) {
+            sslSocket.close();
+         }
+      }
+   }
+
+   private static String makeRequest() throws Exception {
+      final SSLSocket sslSocket = (SSLSocket) sslSocketFactory.createSocket("localhost", SSL_PORT);
+      try {
+         sslSocket.setSoTimeout(10000);
+
+         final OutputStream outputStream = sslSocket.getOutputStream();
+         outputStream.write("GET /invoice?status=active&type=full HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes("US-ASCII"));
+         outputStream.flush();
+
+         return new BufferedReader(new InputStreamReader(sslSocket.getInputStream(), "US-ASCII")).readLine();
+      } finally {
+         sslSocket.close();
+      }
+   }
+}
@@ -10,9 +10,11 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.StringReader;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Alexander Zagniotov
@@ -81,4 +83,67 @@ public class YamlParserTest {
       final String expectedPostBody = FileUtils.asciiFileToString("../json/yamlparser.test.class.post.body.json");
       Assert.assertEquals(expectedPostBody, new String(request.getFile(), StringUtils.utf8Charset()));
    }
+
+   @Test
+   public void load_ShouldShareFileContent_WhenSameContentLoadedFromDifferentPaths() throws Exception {
+      final URL url = this.getClass().getResource("/yaml/yamlparser.test.class.data.yaml");
+      Assert.assertNotNull(url);
+
+      CommandLineInterpreter.parseCommandLine(new String[]{"--data", url.getFile()});
+
+      final String yaml =
+         "-  request:\n" +
+         "      method: POST\n" +
+         "      url: /first\n" +
+         "      file: ../json/yamlparser.test.class.post.body.json\n" +
+         "   response:\n" +
+         "      status: 200\n" +
+         "      file: ../binary/hello-world.pdf\n" +
+         "\n" +
+         "-  request:\n" +
+         "      method: POST\n" +
+         "      url: /second\n" +
+         "      file: ../yaml/../json/yamlparser.test.class.post.body.json\n" +
+         "   response:\n" +
+         "      status: 200\n" +
+         "      file: ../binary/hello-world.pdf\n";
+
+      final YamlParser yamlParser = new YamlParser(url.getFile());
+      final List<StubHttpLifecycle> loadedHttpCycles = yamlParser.parseAndLoad(new StringReader(yaml));
+
+      Assert.assertSame(loadedHttpCycles.get(0).getRequest().getFile(), loadedHttpCycles.get(1).getRequest().getFile());
+      Assert.assertSame(loadedHttpCycles.get(0).getResponse().getFile(), loadedHttpCycles.get(1).getResponse().getFile());
+      Assert.assertNotSame(loadedHttpCycles.get(0).getRequest().getFile(), loadedHttpCycles.get(0).getResponse().getFile());
+   }
+
+   @Test
+   public void load_ShouldKeepServerSettingsApartFromStubs_WhenServerSectionGiven() throws Exception {
+      final URL url = this.getClass().getResource("/yaml/yamlparser.test.class.data.yaml");
+      Assert.assertNotNull(url);
+
+      CommandLineInterpreter.parseCommandLine(new String[]{"--data", url.getFile()});
+
+      final String yaml =
+         "-  server:\n" +
+         "      maxthreads: 500\n" +
+         "      ssl:\n" +
+         "         acceptors: 4\n" +
+         "\n" +
+         "-  request:\n" +
+         "      method: GET\n" +
+         "      url: /first\n" +
+         "   response:\n" +
+         "      status: 200\n";
+
+      final YamlParser yamlParser = new YamlParser(url.getFile());
+      final List<StubHttpLifecycle> loadedHttpCycles = yamlParser.parseAndLoad(new StringReader(yaml));
+
+      Assert.assertEquals(1, loadedHttpCycles.size());
+      Assert.assertEquals("/first", loadedHttpCycles.get(0).getRequest().getUrl());
+      Assert.assertEquals("500", yamlParser.getServerSettings().get("maxthreads"));
+      Assert.assertEquals("4", ((Map<?, ?>) yamlParser.getServerSettings().get("ssl")).get("acceptors"));
+
+      yamlParser.parseAndLoad(new StringReader(yaml.substring(yaml.indexOf("-  request:"))));
+      Assert.assertTrue(yamlParser.getServerSettings().isEmpty());
+   }
 }
@@ -2,6 +2,8 @@ package by.stub.database;
 
 import by.stub.builder.stubs.StubRequestBuilder;
 import by.stub.cli.CommandLineInterpreter;
+import by.stub.utils.RequestBody;
+import by.stub.utils.StringUtils;
 import by.stub.yaml.YamlParser;
 import by.stub.yaml.stubs.NotFoundStubResponse;
 import by.stub.yaml.stubs.RedirectStubResponse;
@@ -14,17 +16,30 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -69,6 +84,32 @@ public class DataStoreTest {
       assertThat(StubResponseTypes.REDIRECT, is(sameInstance(foundStubResponse.getStubResponseType())));
    }
 
+   @Test
+   public void shouldReturnSameRedirectResponse_WhenRedirectingStubMatchedAgain() throws IOException {
+
+      final String url = "/some/redirecting/mapped-file";
+      final byte[] fileContent = "redirecting file content".getBytes(StringUtils.utf8Charset());
+
+      final StubResponse stubResponse = new StubResponse();
+      stubResponse.setStatus("301");
+      stubResponse.getHeaders().put("location", "/some/other/uri");
+      stubResponse.setMappedFile(ByteBuffer.wrap(fileContent));
+      stubResponse.precompute();
+
+      final List<StubHttpLifecycle> stubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodGet().build(), stubResponse));
+
+      final DataStore localDataStore = new DataStore(stubHttpLifecycles);
+
+      final StubResponse foundStubResponse = localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodGet().build());
+
+      assertThat(foundStubResponse, is(instanceOf(RedirectStubResponse.class)));
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodGet().build()), is(sameInstance(foundStubResponse)));
+      assertThat(foundStubResponse.getStatus(), is("301"));
+      assertThat(foundStubResponse.getResponseHeaders(), is(sameInstance(stubResponse.getResponseHeaders())));
+      assertThat(foundStubResponse.getResponseBody(), is(fileContent));
+   }
+
    @Test
    public void shouldReturnDefaultStubResponse_WhenValidGetRequestMade() throws IOException {
 
@@ -274,4 +315,352 @@ public class DataStoreTest {
       assertThat(StubResponseTypes.NOTFOUND, is(sameInstance(foundStubResponse.getStubResponseType())));
    }
 
-}
\ No newline at end of file
+   @Test
+   public void shouldReturnFirstLoadedStubResponse_WhenSeveralStubsMatch() throws IOException {
+
+      final String url = "/invoice/first-match";
+      final StubResponse firstStubResponse = new StubResponse();
+      final StubResponse secondStubResponse = new StubResponse();
+
+      final List<StubHttpLifecycle> stubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodGet().withQuery("type", "full").build(), new StubResponse()));
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodGet().build(), firstStubResponse));
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodGet().withMethodPost().build(), secondStubResponse));
+
+      final DataStore localDataStore = new DataStore(stubHttpLifecycles);
+
+      final StubResponse foundGetStubResponse = localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodGet().build());
+      final StubResponse foundPostStubResponse = localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodPost().build());
+
+      assertThat(foundGetStubResponse, is(sameInstance(firstStubResponse)));
+      assertThat(foundPostStubResponse, is(sameInstance(secondStubResponse)));
+   }
+
+   @Test
+   public void shouldReturnStubResponseStubbedWithSamePostBody_WhenSeveralStubsShareUrl() throws IOException {
+
+      final String url = "/invoice/same-url";
+      final StubResponse firstStubResponse = new StubResponse();
+      final StubResponse secondStubResponse = new StubResponse();
+      final StubResponse putStubResponse = new StubResponse();
+
+      final List<StubHttpLifecycle> stubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodPost().withPost("{\"id\": 1}").build(), firstStubResponse));
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodPost().withPost("{\"id\": 2}").build(), secondStubResponse));
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodPut().withPost("{\"id\": 1}").build(), putStubResponse));
+
+      final DataStore localDataStore = new DataStore(stubHttpLifecycles);
+
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodPost().withPost("{\"id\": 2}").build()), is(sameInstance(secondStubResponse)));
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodPost().withPost("{\"id\": 1}").build()), is(sameInstance(firstStubResponse)));
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodPut().withPost("{\"id\": 1}").build()), is(sameInstance(putStubResponse)));
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodPost().withPost("{\"id\": 3}").build()), is(instanceOf(NotFoundStubResponse.class)));
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodPost().build()), is(instanceOf(NotFoundStubResponse.class)));
+   }
+
+   @Test
+   public void shouldReturnFirstLoadedStubResponse_WhenStubWithoutPostBodyLoadedBeforeStubWithPostBody() throws IOException {
+
+      final String url = "/invoice/body-order";
+      final StubResponse withoutBodyStubResponse = new StubResponse();
+      final StubResponse withBodyStubResponse = new StubResponse();
+      final StubResponse lastStubResponse = new StubResponse();
+
+      final List<StubHttpLifecycle> stubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodPost().withHeaders("content-type", "application/json").build(), withoutBodyStubResponse));
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodPost().withPost("{\"id\": 1}").build(), withBodyStubResponse));
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodPost().build(), lastStubResponse));
+
+      final DataStore localDataStore = new DataStore(stubHttpLifecycles);
+
+      final StubRequest jsonRequest = BUILDER.withUrl(url).withMethodPost().withPost("{\"id\": 1}").withHeaders("content-type", "application/json").build();
+      final StubRequest plainRequest = BUILDER.withUrl(url).withMethodPost().withPost("{\"id\": 1}").withHeaders("content-type", "text/plain").build();
+      final StubRequest otherBodyRequest = BUILDER.withUrl(url).withMethodPost().withPost("{\"id\": 2}").build();
+
+      assertThat(localDataStore.findStubResponseFor(jsonRequest), is(sameInstance(withoutBodyStubResponse)));
+      assertThat(localDataStore.findStubResponseFor(plainRequest), is(sameInstance(withBodyStubResponse)));
+      assertThat(localDataStore.findStubResponseFor(otherBodyRequest), is(sameInstance(lastStubResponse)));
+   }
+
+   @Test
+   public void shouldReadPostBody_OnlyWhenComparedStubIsMatchedOnPostBody() throws IOException {
+
+      final StubResponse uploadStubResponse = new StubResponse();
+      final StubResponse searchStubResponse = new StubResponse();
+
+      final List<StubHttpLifecycle> stubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl("/upload").withMethodPost().build(), uploadStubResponse));
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl("/search").withMethodPost().withPost("{\"id\": 1}").build(), searchStubResponse));
+
+      final DataStore localDataStore = new DataStore(stubHttpLifecycles);
+
+      final HttpServletRequest uploadRequest = mockPostRequest("/upload", "large upload");
+      final HttpServletRequest searchRequest = mockPostRequest("/search", "{\"id\": 1}");
+
+      assertThat(localDataStore.findStubResponseFor(StubRequest.createFromHttpServletRequest(uploadRequest)), is(sameInstance(uploadStubResponse)));
+      assertThat(localDataStore.findStubResponseFor(StubRequest.createFromHttpServletRequest(searchRequest)), is(sameInstance(searchStubResponse)));
+
+      verify(uploadRequest, never()).getInputStream();
+      verify(searchRequest, times(1)).getInputStream();
+   }
+
+   @Test
+   public void shouldReturnStubResponseFromReloadedStubs_WhenStubsWereReset() throws IOException {
+
+      final String url = "/invoice/reloaded";
+      final StubResponse reloadedStubResponse = new StubResponse();
+
+      final List<StubHttpLifecycle> reloadedStubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      reloadedStubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodPut().build(), reloadedStubResponse));
+
+      final DataStore localDataStore = new DataStore(new LinkedList<StubHttpLifecycle>());
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodPut().build()), is(instanceOf(NotFoundStubResponse.class)));
+
+      localDataStore.resetStubHttpLifecycles(reloadedStubHttpLifecycles);
+
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodPut().build()), is(sameInstance(reloadedStubResponse)));
+   }
+
+   @Test
+   public void shouldNeverReturnNotFoundStubResponse_WhileStubsAreBeingReset() throws Exception {
+
+      final String url = "/invoice/live-reload";
+      final List<StubHttpLifecycle> stubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      for (int idx = 0; idx < 500; idx++) {
+         stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url + "/" + idx).withMethodGet().build(), new StubResponse()));
+      }
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodGet().build(), new StubResponse()));
+
+      final DataStore localDataStore = new DataStore(stubHttpLifecycles);
+      final AtomicInteger notFoundResponses = new AtomicInteger();
+      final CountDownLatch readersDone = new CountDownLatch(4);
+
+      for (int reader = 0; reader < 4; reader++) {
+         new Thread(new Runnable() {
+            @Override
+            public void run() {
+               for (int idx = 0; idx < 2000; idx++) {
+                  final StubRequest assertingRequest = new StubRequestBuilder().withUrl(url).withMethodGet().build();
+                  if (localDataStore.findStubResponseFor(assertingRequest) instanceof NotFoundStubResponse) {
+                     notFoundResponses.incrementAndGet();
+                  }
+               }
+               readersDone.countDown();
+            }
+         }).start();
+      }
+
+      while (readersDone.getCount() > 0) {
+         localDataStore.resetStubHttpLifecycles(stubHttpLifecycles);
+      }
+
+      assertThat(notFoundResponses.get(), is(0));
+   }
+
+   @Test
+   public void shouldReturnStubResponseStubbedWithUrlPattern_WhenNoExactUrlStubMatches() throws Exception {
+
+      final String yaml =
+         "-  request:\n" +
+         "      method: GET\n" +
+         "      url: ^/account/[0-9]+$\n" +
+         "   response:\n" +
+         "      status: 200\n" +
+         "      body: regex\n" +
+         "\n" +
+         "-  request:\n" +
+         "      method: GET\n" +
+         "      url: /account/*/invoices/**\n" +
+         "   response:\n" +
+         "      status: 200\n" +
+         "      body: glob\n" +
+         "\n" +
+         "-  request:\n" +
+         "      method: GET\n" +
+         "      url: /account/1\n" +
+         "   response:\n" +
+         "      status: 200\n" +
+         "      body: exact\n";
+
+      final DataStore localDataStore = new DataStore(new YamlParser("").parseAndLoad(new StringReader(yaml)));
+
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl("/account/1").withMethodGet().build()).getBody(), is("exact"));
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl("/account/2").withMethodGet().build()).getBody(), is("regex"));
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl("/account/2/invoices/2013/01").withMethodGet().build()).getBody(), is("glob"));
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl("/account/abc").withMethodGet().build()), is(instanceOf(NotFoundStubResponse.class)));
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl("/account/2").withMethodPost().build()), is(instanceOf(NotFoundStubResponse.class)));
+   }
+
+   @Test
+   public void shouldFindBiggestStubbedMaxRequestBodySize_WhenStubsAtRequestUrlLimitBodySize() throws Exception {
+
+      final String yaml =
+         "-  request:\n" +
+         "      method: POST\n" +
+         "      url: /upload\n" +
+         "      maxbody: 1024\n" +
+         "   response:\n" +
+         "      status: 201\n" +
+         "\n" +
+         "-  request:\n" +
+         "      method: POST\n" +
+         "      url: /upload/*\n" +
+         "      maxbody: 2048\n" +
+         "   response:\n" +
+         "      status: 201\n" +
+         "\n" +
+         "-  request:\n" +
+         "      method: POST\n" +
+         "      url: /upload/images\n" +
+         "      maxbody: 4096\n" +
+         "   response:\n" +
+         "      status: 201\n" +
+         "\n" +
+         "-  request:\n" +
+         "      method: POST\n" +
+         "      url: /search\n" +
+         "   response:\n" +
+         "      status: 200\n";
+
+      final DataStore localDataStore = new DataStore(new YamlParser("").parseAndLoad(new StringReader(yaml)));
+
+      assertThat(localDataStore.findMaxRequestBodySizeFor(BUILDER.withUrl("/upload").withMethodPost().build()), is(1024));
+      assertThat(localDataStore.findMaxRequestBodySizeFor(BUILDER.withUrl("/upload/documents").withMethodPost().build()), is(2048));
+      assertThat(localDataStore.findMaxRequestBodySizeFor(BUILDER.withUrl("/upload/images").withMethodPost().build()), is(4096));
+      assertThat(localDataStore.findMaxRequestBodySizeFor(BUILDER.withUrl("/search").withMethodPost().build()), is(RequestBody.UNLIMITED));
+      assertThat(localDataStore.findMaxRequestBodySizeFor(BUILDER.withUrl("/upload").withMethodPut().build()), is(RequestBody.UNLIMITED));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void shouldRejectStubs_WhenStubbedMaxRequestBodySizeIsInvalid() throws Exception {
+
+      final String yaml =
+         "-  request:\n" +
+         "      method: POST\n" +
+         "      url: /upload\n" +
+         "      maxbody: 1kb\n" +
+         "   response:\n" +
+         "      status: 201\n";
+
+      new YamlParser("").parseAndLoad(new StringReader(yaml));
+   }
+
+   @Test
+   public void shouldCountMatchCacheHitsAndMisses_WhenRequestsDifferOnlyInNotStubbedQuery() throws IOException {
+
+      final String url = "/invoice/cached";
+      final StubResponse stubResponse = new StubResponse();
+
+      final List<StubHttpLifecycle> stubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodGet().build(), stubResponse));
+
+      final DataStore localDataStore = new DataStore(stubHttpLifecycles, 10);
+
+      for (int idx = 0; idx < 5; idx++) {
+         assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodGet().withQuery("page", "1").build()), is(sameInstance(stubResponse)));
+      }
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodGet().withQuery("page", "2").build()), is(sameInstance(stubResponse)));
+
+      assertThat(localDataStore.isMatchCacheEnabled(), is(true));
+      assertThat(localDataStore.getMatchCacheHits(), is(5L));
+      assertThat(localDataStore.getMatchCacheMisses(), is(1L));
+      assertThat(localDataStore.getMatchCacheEntries(), is(1));
+   }
+
+   @Test
+   public void shouldNotReturnCachedMatch_WhenStubbedHeadersOrQueryDiffer() throws IOException {
+
+      final String url = "/invoice/cached-shapes";
+      final StubResponse jsonStubResponse = new StubResponse();
+      final StubResponse fullStubResponse = new StubResponse();
+      final StubResponse defaultStubResponse = new StubResponse();
+
+      final List<StubHttpLifecycle> stubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodGet().withHeaders("content-type", "application/json").build(), jsonStubResponse));
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodGet().withQuery("type", "full").build(), fullStubResponse));
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodGet().build(), defaultStubResponse));
+
+      final DataStore localDataStore = new DataStore(stubHttpLifecycles, 2);
+
+      for (int idx = 0; idx < 3; idx++) {
+         assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodGet().withHeaders("content-type", "application/json").build()), is(sameInstance(jsonStubResponse)));
+         assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodGet().withQuery("type", "full").build()), is(sameInstance(fullStubResponse)));
+         assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodGet().withHeaders("content-type", "text/plain").build()), is(sameInstance(defaultStubResponse)));
+      }
+
+      assertThat(localDataStore.getMatchCacheEntries(), is(2));
+   }
+
+   @Test
+   public void shouldNotReturnCachedMatch_WhenPostBodiesDifferWithEqualContentHash() throws IOException {
+
+      final String url = "/invoice/cached-collision";
+      final String stubbedPostBody = "{\"id\": 1}";
+      final StubResponse withBodyStubResponse = new StubResponse();
+      final StubResponse withoutBodyStubResponse = new StubResponse();
+
+      final List<StubHttpLifecycle> stubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodPost().withPost(stubbedPostBody).build(), withBodyStubResponse));
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodPost().build(), withoutBodyStubResponse));
+
+      final DataStore localDataStore = new DataStore(stubHttpLifecycles, 10);
+
+      // Body of the same length, which collides with the stubbed body on content hash
+      final StubRequest collidingRequest = spy(BUILDER.withUrl(url).withMethodPost().withPost("{\"id\": 2}").build());
+      doReturn(RequestBody.contentHashOf(stubbedPostBody)).when(collidingRequest).getPostBodyContentHash();
+
+      for (int idx = 0; idx < 2; idx++) {
+         assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodPost().withPost(stubbedPostBody).build()), is(sameInstance(withBodyStubResponse)));
+         assertThat(localDataStore.findStubResponseFor(collidingRequest), is(sameInstance(withoutBodyStubResponse)));
+      }
+      assertThat(localDataStore.getMatchCacheEntries(), is(1));
+
+      final DataStore collidingFirstDataStore = new DataStore(stubHttpLifecycles, 10);
+
+      assertThat(collidingFirstDataStore.findStubResponseFor(collidingRequest), is(sameInstance(withoutBodyStubResponse)));
+      assertThat(collidingFirstDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodPost().withPost(stubbedPostBody).build()), is(sameInstance(withBodyStubResponse)));
+   }
+
+   @Test
+   public void shouldInvalidateMatchCache_WhenStubsWereReset() throws IOException {
+
+      final String url = "/invoice/cached-reloaded";
+      final StubResponse stubResponse = new StubResponse();
+      final StubResponse reloadedStubResponse = new StubResponse();
+
+      final List<StubHttpLifecycle> stubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      stubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodGet().build(), stubResponse));
+      final List<StubHttpLifecycle> reloadedStubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      reloadedStubHttpLifecycles.add(new StubHttpLifecycle(BUILDER.withUrl(url).withMethodGet().build(), reloadedStubResponse));
+
+      final DataStore localDataStore = new DataStore(stubHttpLifecycles, 10);
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodGet().build()), is(sameInstance(stubResponse)));
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodGet().build()), is(sameInstance(stubResponse)));
+
+      localDataStore.resetStubHttpLifecycles(reloadedStubHttpLifecycles);
+
+      assertThat(localDataStore.getMatchCacheEntries(), is(0));
+      assertThat(localDataStore.findStubResponseFor(BUILDER.withUrl(url).withMethodGet().build()), is(sameInstance(reloadedStubResponse)));
+   }
+
+   @Test(expected = UnsupportedOperationException.class)
+   public void shouldNotAllowModifyingLoadedStubs() throws Exception {
+      dataStore.getStubHttpLifecycles().clear();
+   }
+
+   private static HttpServletRequest mockPostRequest(final String url, final String postBody) throws IOException {
+      final InputStream inputStream = new ByteArrayInputStream(postBody.getBytes(StringUtils.UTF_8));
+
+      final HttpServletRequest mockHttpServletRequest = mock(HttpServletRequest.class);
+      when(mockHttpServletRequest.getPathInfo()).thenReturn(url);
+      when(mockHttpServletRequest.getMethod()).thenReturn("POST");
+      when(mockHttpServletRequest.getInputStream()).thenReturn(new ServletInputStream() {
+         @Override
+         public int read() throws IOException {
+            return inputStream.read();
+         }
+      });
+
+      return mockHttpServletRequest;
+   }
+}
@@ -0,0 +1,79 @@
+package by.stub.database;
+
+import by.stub.builder.stubs.StubRequestBuilder;
+import by.stub.cli.CommandLineInterpreter;
+import by.stub.yaml.stubs.StubHttpLifecycle;
+import by.stub.yaml.stubs.StubRequest;
+import by.stub.yaml.stubs.StubResponse;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Lookup must compare an incoming request only with the stubs at its method and URL, however many stubs are loaded
+ */
+public class StubIndexLookupTest {
+
+   private static final StubRequestBuilder BUILDER = new StubRequestBuilder();
+   private static final int[] STUB_COUNTS = {100, 1000, 10000, 100000};
+   private static final int LOOKUPS = 1000;
+
+   @BeforeClass
+   public static void beforeClass() throws Exception {
+      CommandLineInterpreter.parseCommandLine(new String[]{});
+   }
+
+   @Test
+   public void lookupShouldCompareSingleCandidate_AsStubCountGrows() throws Exception {
+
+      for (final int stubCount : STUB_COUNTS) {
+         final List<StubHttpLifecycle> stubHttpLifecycles = buildStubs(stubCount);
+         final StubIndex stubIndex = new StubIndex(stubHttpLifecycles);
+
+         for (int idx = 0; idx < LOOKUPS; idx++) {
+            final int stubId = (int) ((idx * 7919L) % stubCount);
+            final StubRequest assertingRequest = BUILDER.withUrl(buildUrl(stubId)).withMethodGet().build();
+
+            assertThat(stubIndex.countCandidates(assertingRequest), is(equalTo(1)));
+            assertThat(stubIndex.findMatch(assertingRequest, false), is(sameInstance(stubHttpLifecycles.get(stubId))));
+         }
+      }
+   }
+
+   @Test
+   public void lookupShouldCompareNoCandidate_WhenMethodAndUrlWereNotStubbed() throws Exception {
+
+      final StubIndex stubIndex = new StubIndex(buildStubs(1000));
+      final StubRequest assertingRequest = BUILDER.withUrl(buildUrl(1000)).withMethodGet().build();
+
+      assertThat(stubIndex.countCandidates(assertingRequest), is(equalTo(0)));
+      assertThat(stubIndex.findMatch(assertingRequest, false), is(nullValue()));
+      assertThat(stubIndex.countCandidates(BUILDER.withUrl(buildUrl(1)).withMethodPost().build()), is(equalTo(0)));
+   }
+
+   private static List<StubHttpLifecycle> buildStubs(final int stubCount) {
+      final List<StubHttpLifecycle> stubHttpLifecycles = new ArrayList<StubHttpLifecycle>(stubCount);
+
+      for (int stubId = 0; stubId < stubCount; stubId++) {
+         final StubRequest stubRequest = BUILDER.withUrl(buildUrl(stubId)).withMethodGet().build();
+         final StubResponse stubResponse = new StubResponse();
+         stubResponse.setBody("Response for stub " + stubId);
+
+         stubHttpLifecycles.add(new StubHttpLifecycle(stubRequest, stubResponse));
+      }
+
+      return stubHttpLifecycles;
+   }
+
+   private static String buildUrl(final int stubId) {
+      return String.format("/api/v2/accounts/%s/invoices", stubId);
+   }
+}
@@ -20,7 +20,8 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 package by.stub.cli;
 
 /**
- * Prints to console any given message using ANSI colours.
+ * Prints to console any given message using ANSI colours. Messages logged for every request are queued,
+ * and printed in batches by a background thread.
  *
  * @author Eric Mrak
  */
@@ -37,6 +38,8 @@ public final class ANSITerminal {
    private static final String MAGENTA = String.format("%s[35m", ESCAPE);
    private static final String RED = String.format("%s[31m", ESCAPE);
    private static final String YELLOW = String.format("%s[33m", ESCAPE);
+   private static final int QUEUED_LINES_CAPACITY = 16384;
+   private static final ConsoleWriter CONSOLE_WRITER = new ConsoleWriter(QUEUED_LINES_CAPACITY);
    private static boolean mute = false;
 
    private ANSITerminal() {
@@ -47,7 +50,14 @@ public final class ANSITerminal {
       if (mute) {
          return;
       }
-      System.out.println(String.format("%s%s%s", color, msg, RESET));
+      CONSOLE_WRITER.print(color + msg + RESET);
+   }
+
+   private static void queue(final String color, final String msg) {
+      if (mute) {
+         return;
+      }
+      CONSOLE_WRITER.offer(color + msg + RESET);
    }
 
    public static void log(final String msg) {
@@ -126,6 +136,76 @@ public final class ANSITerminal {
       print(MAGENTA, msg);
    }
 
+   /**
+    * Queues message to be printed to the console in cyan colour, or drops it if the console can not keep up
+    *
+    * @param msg message to print to the console
+    */
+   public static void queueIncoming(final String msg) {
+      queue(CYAN, msg);
+   }
+
+   /**
+    * Queues message to be printed to the console in green colour, or drops it if the console can not keep up
+    *
+    * @param msg message to print to the console
+    */
+   public static void queueOk(final String msg) {
+      queue(GREEN, msg);
+   }
+
+   /**
+    * Queues message to be printed to the console in yellow colour, or drops it if the console can not keep up
+    *
+    * @param msg message to print to the console
+    */
+   public static void queueWarn(final String msg) {
+      queue(YELLOW, msg);
+   }
+
+   /**
+    * Queues message to be printed to the console in red colour, or drops it if the console can not keep up
+    *
+    * @param msg message to print to the console
+    */
+   public static void queueError(final String msg) {
+      queue(RED, msg);
+   }
+
+   /**
+    * Queues message to be printed to the console in blue colour, or drops it if the console can not keep up
+    *
+    * @param msg message to print to the console
+    */
+   public static void queueInfo(final String msg) {
+      queue(BLUE, msg);
+   }
+
+   /**
+    * Queues message to be printed to the console, or drops it if the console can not keep up
+    *
+    * @param msg message to print to the console
+    */
+   public static void queueLog(final String msg) {
+      queue("", msg);
+   }
+
+   /**
+    * Returns the number of queued messages dropped so far, because the console could not keep up
+    *
+    * @return number of dropped messages
+    */
+   public static long getDroppedMessages() {
+      return CONSOLE_WRITER.getDropped();
+   }
+
+   /**
+    * Prints messages queued so far and stops the thread printing queued messages, until a message is queued again
+    */
+   public static void stopQueueing() {
+      CONSOLE_WRITER.stop();
+   }
+
    /**
     * Disables console output
     *
@@ -19,6 +19,7 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 
 package by.stub.cli;
 
+import by.stub.utils.RequestBody;
 import by.stub.utils.StringUtils;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -45,6 +46,22 @@ public final class CommandLineInterpreter {
    public static final String OPTION_MUTE = "mute";
    public static final String OPTION_WATCH = "watch";
    public static final String OPTION_DEBUG = "debug";
+   public static final String OPTION_MATCH_CACHE = "matchcache";
+   public static final String OPTION_MMAP = "mmap";
+   public static final String OPTION_FILE_CACHE = "filecache";
+   public static final String OPTION_COMPRESS = "compress";
+   public static final String OPTION_MAX_BODY = "maxbody";
+   public static final String OPTION_HASH_BODY = "hashbody";
+   public static final String OPTION_MIN_THREADS = "minthreads";
+   public static final String OPTION_MAX_THREADS = "maxthreads";
+   public static final String OPTION_ACCEPTORS = "acceptors";
+   public static final String OPTION_ACCEPT_QUEUE = "acceptqueue";
+   public static final String OPTION_IDLE_TIME = "idletime";
+   public static final String OPTION_HEADER_SIZE = "headersize";
+   public static final String OPTION_BUFFER_SIZE = "buffersize";
+   public static final String OPTION_SSL_ACCEPTORS = "sslacceptors";
+   public static final String OPTION_SSL_IDLE_TIME = "sslidletime";
+   public static final String OPTION_SSL_SESSION_CACHE = "sslsessioncache";
    public static final String OPTION_HELP = "help";
 
    private static final CommandLineParser POSIX_PARSER = new PosixParser();
@@ -62,7 +79,23 @@ public final class CommandLineInterpreter {
       OPTIONS.addOption("h", OPTION_HELP, false, "This help text.");
       OPTIONS.addOption("m", OPTION_MUTE, false, "Prevent stubby from printing to the console.");
       OPTIONS.addOption("w", OPTION_WATCH, false, "Reload datafile when changes are made.");
+      OPTIONS.addOption(null, OPTION_MIN_THREADS, true, "Minimum number of worker threads. Defaults to 8.");
+      OPTIONS.addOption(null, OPTION_MAX_THREADS, true, "Maximum number of worker threads. Defaults to 254.");
+      OPTIONS.addOption(null, OPTION_ACCEPTORS, true, "Number of threads accepting connections of every portal. Defaults to a quarter of available processors.");
+      OPTIONS.addOption(null, OPTION_ACCEPT_QUEUE, true, "Size of the queue of connections waiting to be accepted by every portal. Defaults to the JVM default.");
+      OPTIONS.addOption(null, OPTION_IDLE_TIME, true, "Time in milliseconds after which idle connections of every portal are closed. Defaults to 45000 for stub portal and 200000 for SSL and admin portals.");
+      OPTIONS.addOption(null, OPTION_HEADER_SIZE, true, "Size in bytes of request and response header buffers of every portal. Defaults to 6144, or 8192 for requests to stub portal.");
+      OPTIONS.addOption(null, OPTION_BUFFER_SIZE, true, "Size in bytes of request and response body buffers of every portal. Defaults to 16384 for requests and 32768 for responses.");
+      OPTIONS.addOption(null, OPTION_SSL_ACCEPTORS, true, "Number of threads accepting SSL connections, overriding --acceptors.");
+      OPTIONS.addOption(null, OPTION_SSL_IDLE_TIME, true, "Time in milliseconds after which idle SSL connections are closed, overriding --idletime.");
+      OPTIONS.addOption(null, OPTION_SSL_SESSION_CACHE, true, "Number of TLS sessions cached for resumption. Defaults to the JVM default.");
       OPTIONS.addOption(null, OPTION_DEBUG, false, "Show comparison print-outs when endpoints are hit.");
+      OPTIONS.addOption(null, OPTION_MAX_BODY, true, "Maximum size of request body in bytes. Unlimited by default.");
+      OPTIONS.addOption(null, OPTION_HASH_BODY, true, "Request bodies bigger than given size in bytes are not kept in memory and are matched by content hash only. Disabled by default.");
+      OPTIONS.addOption(null, OPTION_MATCH_CACHE, true, "Number of recently matched requests to cache. Disabled by default.");
+      OPTIONS.addOption(null, OPTION_COMPRESS, false, "Send response bodies compressed with gzip or deflate when accepted by the client.");
+      OPTIONS.addOption(null, OPTION_FILE_CACHE, true, "Memory budget in bytes for content of response files, which are then loaded when first used instead of on startup. Disabled by default.");
+      OPTIONS.addOption(null, OPTION_MMAP, true, "Memory-map binary response files of at least given size in bytes instead of loading them onto the heap. Disabled by default.");
    }
 
 
@@ -112,6 +145,54 @@ public final class CommandLineInterpreter {
       return line.hasOption(OPTION_DEBUG);
    }
 
+   /**
+    * Checks if response bodies should be compressed
+    *
+    * @return true if the user enabled compression of response bodies using command line arg
+    */
+   public static boolean isCompressing() {
+      return line.hasOption(OPTION_COMPRESS);
+   }
+
+   /**
+    * Returns the maximum number of request body bytes read by stubby
+    *
+    * @return size in bytes, or {@link RequestBody#UNLIMITED} if the user did not limit the size using command line arg
+    */
+   public static int getMaxRequestBodySize() {
+      if (!line.hasOption(OPTION_MAX_BODY)) {
+         return RequestBody.UNLIMITED;
+      }
+
+      return Integer.parseInt(line.getOptionValue(OPTION_MAX_BODY));
+   }
+
+   /**
+    * Returns the size from which request bodies are only hashed while they are read, instead of being kept
+    *
+    * @return size in bytes, or {@link RequestBody#UNLIMITED} if the user did not enable hashing only using command line arg
+    */
+   public static int getHashOnlyRequestBodySize() {
+      if (!line.hasOption(OPTION_HASH_BODY)) {
+         return RequestBody.UNLIMITED;
+      }
+
+      return Integer.parseInt(line.getOptionValue(OPTION_HASH_BODY));
+   }
+
+   /**
+    * Returns the size from which binary response files are memory-mapped
+    *
+    * @return size in bytes, or -1 if the user did not enable memory-mapping using command line arg
+    */
+   public static long getMappedFileThreshold() {
+      if (!line.hasOption(OPTION_MMAP)) {
+         return -1;
+      }
+
+      return Long.parseLong(line.getOptionValue(OPTION_MMAP));
+   }
+
    /**
     * Checks if the watch flag was given
     *
@@ -0,0 +1,194 @@
+/*
+HTTP stub server written in Java with embedded Jetty
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.cli;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes console lines to System.out in batches, from a daemon writer thread. Lines are queued in a bounded
+ * lock-free ring buffer, so request threads do not contend on System.out. When the buffer is full,
+ * queued lines are dropped and counted instead of blocking the request thread.
+ * <p/>
+ * Lines printed right away are written after all the lines queued before them, so the console keeps the order
+ * in which lines were given.
+ * <p/>
+ * Writer thread is parked while nothing is queued, and is unparked by the line which makes the buffer non-empty.
+ */
+final class ConsoleWriter implements Runnable {
+
+   private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+   private final AtomicReferenceArray<String> slots;
+   private final int mask;
+   private final AtomicLong tail = new AtomicLong();
+   private final AtomicLong dropped = new AtomicLong();
+   private final StringBuilder batch = new StringBuilder();
+   private volatile long head;
+   private volatile Thread writerThread;
+   private long reportedDropped;
+   private boolean isShutdownHookAdded;
+
+   /**
+    * @param capacity maximum number of queued lines, rounded up to a power of two
+    */
+   ConsoleWriter(final int capacity) {
+      final int size = (capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1);
+      this.slots = new AtomicReferenceArray<String>(size);
+      this.mask = size - 1;
+   }
+
+   // Writer thread is started when the first line is queued, so it does not run while nothing is queued at all
+   private synchronized void start() {
+      if (writerThread != null) {
+         return;
+      }
+
+      final Thread thread = new Thread(this, ConsoleWriter.class.getCanonicalName());
+      thread.setDaemon(true);
+      writerThread = thread;
+      thread.start();
+
+      if (!isShutdownHookAdded) {
+         isShutdownHookAdded = true;
+         Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+               flush();
+            }
+         }));
+      }
+   }
+
+   /**
+    * Writes all the lines queued so far and stops the writer thread. The thread is started again
+    * when the next line is queued
+    */
+   synchronized void stop() {
+      final Thread thread = writerThread;
+      if (thread == null) {
+         return;
+      }
+
+      writerThread = null;
+      thread.interrupt();
+      drainToBatch();
+      writeBatch();
+   }
+
+   /**
+    * Queues the line to be written by the writer thread
+    *
+    * @param line line to write, without line separator
+    * @return false if the line was dropped, because the buffer was full
+    */
+   boolean offer(final String line) {
+      if (writerThread == null) {
+         start();
+      }
+
+      while (true) {
+         final long current = tail.get();
+         if (current - head >= slots.length()) {
+            dropped.incrementAndGet();
+            return false;
+         }
+
+         if (tail.compareAndSet(current, current + 1)) {
+            slots.set((int) current & mask, line);
+
+            // Head is read after the line is stored, so either the writer sees the line, or the line sees the head
+            // the writer parked at
+            if (current == head) {
+               LockSupport.unpark(writerThread);
+            }
+            return true;
+         }
+      }
+   }
+
+   /**
+    * Writes the line right away, after the lines queued so far
+    *
+    * @param line line to write, without line separator
+    */
+   synchronized void print(final String line) {
+      drainToBatch();
+      batch.append(line).append(LINE_SEPARATOR);
+      writeBatch();
+   }
+
+   /**
+    * Writes all the lines queued so far
+    */
+   synchronized void flush() {
+      drainToBatch();
+      writeBatch();
+   }
+
+   long getDropped() {
+      return dropped.get();
+   }
+
+   @Override
+   public void run() {
+      while (!Thread.currentThread().isInterrupted()) {
+         if (!hasQueued()) {
+            LockSupport.park(this);
+            continue;
+         }
+
+         flush();
+      }
+   }
+
+   private boolean hasQueued() {
+      return slots.get((int) head & mask) != null;
+   }
+
+   // Only called by the single consumer, holding the monitor. A slot claimed by a producer which has not stored
+   // its line yet ends the batch, the line is written with the next batch
+   private void drainToBatch() {
+      long current = head;
+      String line;
+      while ((line = slots.get((int) current & mask)) != null) {
+         slots.set((int) current & mask, null);
+         batch.append(line).append(LINE_SEPARATOR);
+         head = ++current;
+      }
+
+      final long droppedSoFar = dropped.get();
+      if (droppedSoFar > reportedDropped) {
+         batch.append(String.format("[%s console lines dropped, console could not keep up]", droppedSoFar - reportedDropped)).append(LINE_SEPARATOR);
+         reportedDropped = droppedSoFar;
+      }
+   }
+
+   private void writeBatch() {
+      if (batch.length() == 0) {
+         return;
+      }
+
+      System.out.print(batch);
+      System.out.flush();
+      batch.setLength(0);
+   }
+}
@@ -19,44 +19,105 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 
 package by.stub.database;
 
+import by.stub.cli.CommandLineInterpreter;
 import by.stub.yaml.stubs.NotFoundStubResponse;
-import by.stub.yaml.stubs.RedirectStubResponse;
 import by.stub.yaml.stubs.StubHttpLifecycle;
 import by.stub.yaml.stubs.StubRequest;
 import by.stub.yaml.stubs.StubResponse;
 import by.stub.yaml.stubs.UnauthorizedStubResponse;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DataStore {
 
-   private final List<StubHttpLifecycle> stubHttpLifecycles;
+   private final int matchCacheSize;
+   private final AtomicLong matchCacheHits = new AtomicLong();
+   private final AtomicLong matchCacheMisses = new AtomicLong();
+   private final AtomicLong rejectedRequestBodies = new AtomicLong();
+   private volatile StubSnapshot stubSnapshot;
 
    public DataStore(final List<StubHttpLifecycle> stubHttpLifecycles) {
-      this.stubHttpLifecycles = Collections.synchronizedList(stubHttpLifecycles);
+      this(stubHttpLifecycles, 0);
    }
 
+   /**
+    * @param stubHttpLifecycles loaded stubs
+    * @param matchCacheSize     maximum number of request fingerprints mapped to matched stubs,
+    *                           zero disables the match cache
+    */
+   public DataStore(final List<StubHttpLifecycle> stubHttpLifecycles, final int matchCacheSize) {
+      this.matchCacheSize = matchCacheSize;
+      this.stubSnapshot = newStubSnapshot(stubHttpLifecycles);
+   }
+
+   /**
+    * Finds response of the stub matching the given request. Maximum size of the request body is resolved from the same
+    * loaded stubs and set on the request, so a body announced to be bigger is not read, see
+    * {@link StubRequest#isBodyTooLarge()}
+    *
+    * @param assertingRequest incoming request
+    * @return found response, or not found response if the body is too large
+    */
    public StubResponse findStubResponseFor(final StubRequest assertingRequest) {
-      final StubHttpLifecycle assertingLifecycle = new StubHttpLifecycle(assertingRequest, new StubResponse());
+      final StubSnapshot currentSnapshot = stubSnapshot;
+
+      assertingRequest.setBodySizeLimit(findMaxRequestBodySize(currentSnapshot, assertingRequest));
+      if (assertingRequest.isBodyTooLarge()) {
+         return new NotFoundStubResponse();
+      }
+
+      return identifyStubResponseType(currentSnapshot, assertingRequest);
+   }
+
+   /**
+    * Finds the maximum size of body of the given request. Stubs at the method and URL of the request may override
+    * the limit given by the command line arg, in which case the biggest stubbed limit is used
+    *
+    * @param assertingRequest incoming request
+    * @return maximum size in bytes
+    */
+   public int findMaxRequestBodySizeFor(final StubRequest assertingRequest) {
+      return findMaxRequestBodySize(stubSnapshot, assertingRequest);
+   }
+
+   private static int findMaxRequestBodySize(final StubSnapshot currentSnapshot, final StubRequest assertingRequest) {
+      final int stubbedMaxBodySize = currentSnapshot.findMaxBodySize(assertingRequest);
+
+      return (stubbedMaxBodySize < 0 ? CommandLineInterpreter.getMaxRequestBodySize() : stubbedMaxBodySize);
+   }
 
-      return identifyStubResponseType(assertingLifecycle);
+   /**
+    * Counts a request which was rejected, because its body was bigger than the maximum size
+    */
+   public void countRejectedRequestBody() {
+      rejectedRequestBodies.incrementAndGet();
    }
 
-   private StubResponse identifyStubResponseType(final StubHttpLifecycle assertingLifecycle) {
+   /**
+    * @return number of requests rejected since startup, because their body was bigger than the maximum size
+    */
+   public final long getRejectedRequestBodies() {
+      return rejectedRequestBodies.get();
+   }
+
+   private StubResponse identifyStubResponseType(final StubSnapshot currentSnapshot, final StubRequest assertingRequest) {
 
-      final int indexOf = stubHttpLifecycles.indexOf(assertingLifecycle);
-      if (indexOf < 0) {
+      // Requests to method and URL pairs which were never stubbed are answered without a lookup
+      if (!currentSnapshot.mightMatch(assertingRequest)) {
          return new NotFoundStubResponse();
       }
 
-      final StubHttpLifecycle matchedLifecycle = stubHttpLifecycles.get(indexOf);
+      final StubHttpLifecycle matchedLifecycle = currentSnapshot.findMatch(assertingRequest, CommandLineInterpreter.isDebug());
+      if (matchedLifecycle == null) {
+         return new NotFoundStubResponse();
+      }
 
       final Map<String, String> headers = matchedLifecycle.getRequest().getHeaders();
       if (headers.containsKey(StubRequest.AUTH_HEADER)) {
          final String foundAuthorization = headers.get(StubRequest.AUTH_HEADER);
-         final String givenAuthorization = assertingLifecycle.getRequestAuthorizationHeader();
+         final String givenAuthorization = assertingRequest.getHeaders().get(StubRequest.AUTH_HEADER);
 
          if (!foundAuthorization.equals(givenAuthorization)) {
             return new UnauthorizedStubResponse();
@@ -65,21 +126,64 @@ public class DataStore {
 
       final StubResponse stubResponse = matchedLifecycle.getResponse();
       if (stubResponse.hasHeader("location")) {
-         final RedirectStubResponse redirectStubResponse = new RedirectStubResponse();
-
-         return redirectStubResponse.configure(stubResponse);
+         return stubResponse.getRedirectStubResponse();
       }
 
       return stubResponse;
 
    }
 
+   /**
+    * Replaces loaded stubs with the given ones. The new snapshot is built off to the side and published
+    * with a single volatile write, so requests in flight keep seeing either the old or the new stubs in full.
+    *
+    * @param stubHttpLifecycles newly loaded stubs
+    */
    public final void resetStubHttpLifecycles(final List<StubHttpLifecycle> stubHttpLifecycles) {
-      this.stubHttpLifecycles.clear();
-      this.stubHttpLifecycles.addAll(stubHttpLifecycles);
+      this.stubSnapshot = newStubSnapshot(stubHttpLifecycles);
+   }
+
+   private StubSnapshot newStubSnapshot(final List<StubHttpLifecycle> stubHttpLifecycles) {
+      if (!isMatchCacheEnabled()) {
+         return new StubSnapshot(stubHttpLifecycles, null);
+      }
+
+      return new StubSnapshot(stubHttpLifecycles, new StubMatchCache(matchCacheSize, stubHttpLifecycles, matchCacheHits, matchCacheMisses));
+   }
+
+   public final boolean isMatchCacheEnabled() {
+      return matchCacheSize > 0;
+   }
+
+   public final int getMatchCacheSize() {
+      return matchCacheSize;
+   }
+
+   /**
+    * @return number of requests matched by the current stubs, which are held in the match cache
+    */
+   public final int getMatchCacheEntries() {
+      return stubSnapshot.getMatchCacheEntries();
+   }
+
+   /**
+    * @return number of requests answered from the match cache since startup
+    */
+   public final long getMatchCacheHits() {
+      return matchCacheHits.get();
+   }
+
+   /**
+    * @return number of requests which had to be matched against stubs since startup, while match cache was enabled
+    */
+   public final long getMatchCacheMisses() {
+      return matchCacheMisses.get();
    }
 
+   /**
+    * @return unmodifiable list of currently loaded stubs
+    */
    public final List<StubHttpLifecycle> getStubHttpLifecycles() {
-      return stubHttpLifecycles;
+      return stubSnapshot.getStubHttpLifecycles();
    }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.database;
+
+import by.stub.yaml.stubs.StubRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stubs sharing the same method and URL. Stubs which constrain the post body are additionally keyed by content hash
+ * of their normalized body, so that only the stubs stubbed with the incoming body (looked up by the content hash computed
+ * while the body was read) and the stubs without body constraint are compared with the incoming request.
+ * Candidates are compared in load order.
+ *
+ * @see by.stub.utils.RequestBody
+ */
+final class StubBucket {
+
+   private final List<StubMatcher> stubMatchers = new ArrayList<StubMatcher>(1);
+   private final List<StubMatcher> withoutPostBody = new ArrayList<StubMatcher>(1);
+   private final Map<Long, List<StubMatcher>> byPostBody = new HashMap<Long, List<StubMatcher>>();
+   private final List<StubMatcher> withMaxBodySize = new ArrayList<StubMatcher>(0);
+
+   StubBucket() {
+
+   }
+
+   void add(final StubMatcher stubMatcher) {
+      // The same method may be listed more than once for a stub
+      if (!stubMatchers.isEmpty() && stubMatchers.get(stubMatchers.size() - 1) == stubMatcher) {
+         return;
+      }
+
+      stubMatchers.add(stubMatcher);
+
+      if (stubMatcher.getMaxBodySize() >= 0) {
+         withMaxBodySize.add(stubMatcher);
+      }
+
+      if (stubMatcher.getPostBody() == null) {
+         withoutPostBody.add(stubMatcher);
+         return;
+      }
+
+      final Long postBodyContentHash = stubMatcher.getPostBodyContentHash();
+      List<StubMatcher> sameBody = byPostBody.get(postBodyContentHash);
+      if (sameBody == null) {
+         sameBody = new ArrayList<StubMatcher>(1);
+         byPostBody.put(postBodyContentHash, sameBody);
+      }
+      sameBody.add(stubMatcher);
+   }
+
+   StubMatcher findMatcher(final StubRequest assertingRequest, final boolean debug) {
+      if (debug) {
+         return findFirstMatch(assertingRequest, stubMatchers, Collections.<StubMatcher>emptyList(), true);
+      }
+
+      final List<StubMatcher> sameBody = byPostBody.isEmpty() ? null : byPostBody.get(assertingRequest.getPostBodyContentHash());
+      if (sameBody == null) {
+         return findFirstMatch(assertingRequest, withoutPostBody, Collections.<StubMatcher>emptyList(), false);
+      }
+
+      return findFirstMatch(assertingRequest, withoutPostBody, sameBody, false);
+   }
+
+   /**
+    * @return number of stubs in this bucket
+    */
+   int size() {
+      return stubMatchers.size();
+   }
+
+   /**
+    * @return true if at least one stub in this bucket is matched on post body
+    */
+   boolean hasPostBodyStubs() {
+      return !byPostBody.isEmpty();
+   }
+
+   /**
+    * @param postBodyContentHash content hash of normalized post body
+    * @return true if at least one stub in this bucket is matched on post body with the given content hash
+    */
+   boolean hasPostBodyStubs(final long postBodyContentHash) {
+      return !byPostBody.isEmpty() && byPostBody.containsKey(postBodyContentHash);
+   }
+
+   /**
+    * @param url URL path of incoming request
+    * @return the biggest maximum size of request body stubbed by the stubs matching given URL, or -1 if none of them
+    * limits the size
+    */
+   int findMaxBodySize(final String url) {
+      int maxBodySize = -1;
+      for (final StubMatcher stubMatcher : withMaxBodySize) {
+         if (stubMatcher.urlMatches(url)) {
+            maxBodySize = Math.max(maxBodySize, stubMatcher.getMaxBodySize());
+         }
+      }
+
+      return maxBodySize;
+   }
+
+   private static StubMatcher findFirstMatch(final StubRequest assertingRequest,
+                                             final List<StubMatcher> left,
+                                             final List<StubMatcher> right,
+                                             final boolean debug) {
+      int leftIdx = 0;
+      int rightIdx = 0;
+
+      while (leftIdx < left.size() || rightIdx < right.size()) {
+         final StubMatcher candidate;
+
+         if (rightIdx >= right.size() || (leftIdx < left.size() && left.get(leftIdx).getPosition() < right.get(rightIdx).getPosition())) {
+            candidate = left.get(leftIdx++);
+         } else {
+            candidate = right.get(rightIdx++);
+         }
+
+         final boolean isMatch = debug ?
+            assertingRequest.equals(candidate.getStubHttpLifecycle().getRequest()) : candidate.matches(assertingRequest);
+
+         if (isMatch) {
+            return candidate;
+         }
+      }
+
+      return null;
+   }
+}
@@ -0,0 +1,234 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.database;
+
+import by.stub.yaml.stubs.StubHttpLifecycle;
+import by.stub.yaml.stubs.StubRequest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups stubbed lifecycles into buckets keyed by exact URL path and HTTP method, so that an incoming
+ * request is only compared against the stubs that could possibly match it. Buckets are looked up through
+ * a trie of URL path segments.
+ * <p/>
+ * Stubs without URL or method can only ever be matched by requests that also lack them, therefore they are kept
+ * in a separate fallback bucket which is consulted only for such requests. Within every bucket the order in which
+ * stubs were loaded is preserved, so the first matching stub wins as before.
+ * <p/>
+ * Stubs with URL pattern are kept in buckets keyed by HTTP method only, which are consulted only after the exact
+ * URL bucket had no match. Therefore a stub with exact URL wins over a matching URL pattern stub loaded before it.
+ *
+ * @see StubPathTrie
+ * @see StubBucket
+ */
+final class StubIndex {
+
+   private final StubPathTrie stubPathTrie = new StubPathTrie();
+   private final Map<String, StubBucket> patternBuckets = new HashMap<String, StubBucket>();
+   private final StubBucket fallbackBucket = new StubBucket();
+   private boolean isAnyMaxBodySizeStubbed;
+   private boolean isAnyPostBodyStubbed;
+
+   StubIndex(final List<StubHttpLifecycle> stubHttpLifecycles) {
+      for (int idx = 0; idx < stubHttpLifecycles.size(); idx++) {
+         index(new StubMatcher(stubHttpLifecycles.get(idx), idx));
+      }
+      stubPathTrie.freeze();
+   }
+
+   private void index(final StubMatcher stubMatcher) {
+      final StubRequest stubRequest = stubMatcher.getStubHttpLifecycle().getRequest();
+      final String url = stubRequest.getUrlPath();
+      final List<String> methods = stubRequest.getMethods();
+      isAnyMaxBodySizeStubbed |= stubMatcher.getMaxBodySize() >= 0;
+      isAnyPostBodyStubbed |= stubMatcher.getPostBody() != null;
+
+      if (url == null || methods == null || methods.isEmpty()) {
+         fallbackBucket.add(stubMatcher);
+         return;
+      }
+
+      for (final String method : methods) {
+         if (stubRequest.getUrlPattern() == null) {
+            stubPathTrie.getOrCreateBucket(method, url).add(stubMatcher);
+            continue;
+         }
+
+         StubBucket patternBucket = patternBuckets.get(method);
+         if (patternBucket == null) {
+            patternBucket = new StubBucket();
+            patternBuckets.put(method, patternBucket);
+         }
+         patternBucket.add(stubMatcher);
+      }
+   }
+
+   /**
+    * Finds the first loaded stub matching the given request
+    *
+    * @param assertingRequest incoming request
+    * @param debug            if true, stubs are compared using {@link StubRequest#equals(Object)},
+    *                         which prints out the comparison details
+    * @return matched stub or null, if no stub matched
+    */
+   StubHttpLifecycle findMatch(final StubRequest assertingRequest, final boolean debug) {
+      final StubMatcher matchedStubMatcher = findMatcher(assertingRequest, debug);
+
+      return (matchedStubMatcher == null ? null : matchedStubMatcher.getStubHttpLifecycle());
+   }
+
+   /**
+    * Same as {@link #findMatch(StubRequest, boolean)}, returning the compiled matcher of the matched stub
+    *
+    * @param assertingRequest incoming request
+    * @param debug            if true, stubs are compared using {@link StubRequest#equals(Object)},
+    *                         which prints out the comparison details
+    * @return matcher of matched stub or null, if no stub matched
+    */
+   StubMatcher findMatcher(final StubRequest assertingRequest, final boolean debug) {
+      final String url = assertingRequest.getUrlPath();
+      final List<String> methods = assertingRequest.getMethods();
+
+      if (url == null || methods == null || methods.isEmpty()) {
+         return fallbackBucket.findMatcher(assertingRequest, debug);
+      }
+
+      final String method = methods.get(0);
+      final StubBucket exactBucket = stubPathTrie.findBucket(method, url);
+      if (exactBucket != null) {
+         final StubMatcher matchedStubMatcher = exactBucket.findMatcher(assertingRequest, debug);
+         if (matchedStubMatcher != null) {
+            return matchedStubMatcher;
+         }
+      }
+
+      final StubBucket patternBucket = patternBuckets.get(method);
+      if (patternBucket == null) {
+         return null;
+      }
+
+      return patternBucket.findMatcher(assertingRequest, debug);
+   }
+
+   /**
+    * Finds the maximum size of body of the given request, stubbed by the stubs at its method and URL.
+    * When more of them limit the size, the biggest limit is used
+    *
+    * @param assertingRequest incoming request
+    * @return maximum size in bytes, or -1 if no stub at the method and URL of the request limits the size
+    */
+   int findMaxBodySize(final StubRequest assertingRequest) {
+      if (!isAnyMaxBodySizeStubbed) {
+         return -1;
+      }
+
+      final String url = assertingRequest.getUrlPath();
+      final List<String> methods = assertingRequest.getMethods();
+
+      if (url == null || methods == null || methods.isEmpty()) {
+         return fallbackBucket.findMaxBodySize(url);
+      }
+
+      final String method = methods.get(0);
+      final StubBucket exactBucket = stubPathTrie.findBucket(method, url);
+      final StubBucket patternBucket = patternBuckets.get(method);
+
+      return Math.max(exactBucket == null ? -1 : exactBucket.findMaxBodySize(url),
+         patternBucket == null ? -1 : patternBucket.findMaxBodySize(url));
+   }
+
+   /**
+    * Checks if any stub, which could match the given request by its method and URL, is matched on post body.
+    * If none is, the request is matched regardless of its body, so the body does not have to be read
+    *
+    * @param assertingRequest incoming request
+    * @return true if the request may be matched on its post body
+    */
+   boolean isPostBodyMatched(final StubRequest assertingRequest) {
+      if (!isAnyPostBodyStubbed) {
+         return false;
+      }
+
+      final String url = assertingRequest.getUrlPath();
+      final List<String> methods = assertingRequest.getMethods();
+
+      if (url == null || methods == null || methods.isEmpty()) {
+         return fallbackBucket.hasPostBodyStubs();
+      }
+
+      final String method = methods.get(0);
+      final StubBucket exactBucket = stubPathTrie.findBucket(method, url);
+      final StubBucket patternBucket = patternBuckets.get(method);
+
+      return (exactBucket != null && exactBucket.hasPostBodyStubs()) || (patternBucket != null && patternBucket.hasPostBodyStubs());
+   }
+
+   /**
+    * Checks if any stub, which could match the given request by its method and URL, is matched on post body
+    * with the same content hash as the body of the request
+    *
+    * @param assertingRequest incoming request
+    * @return true if the request may be compared with a stubbed post body of equal content hash
+    */
+   boolean isPostBodyContentHashStubbed(final StubRequest assertingRequest) {
+      if (!isAnyPostBodyStubbed) {
+         return false;
+      }
+
+      final long postBodyContentHash = assertingRequest.getPostBodyContentHash();
+      final String url = assertingRequest.getUrlPath();
+      final List<String> methods = assertingRequest.getMethods();
+
+      if (url == null || methods == null || methods.isEmpty()) {
+         return fallbackBucket.hasPostBodyStubs(postBodyContentHash);
+      }
+
+      final String method = methods.get(0);
+      final StubBucket exactBucket = stubPathTrie.findBucket(method, url);
+      final StubBucket patternBucket = patternBuckets.get(method);
+
+      return (exactBucket != null && exactBucket.hasPostBodyStubs(postBodyContentHash)) ||
+         (patternBucket != null && patternBucket.hasPostBodyStubs(postBodyContentHash));
+   }
+
+   /**
+    * Counts the stubs, which the given request may be compared with when looking up its match
+    *
+    * @param assertingRequest incoming request
+    * @return number of stubs in the buckets consulted for the request
+    */
+   int countCandidates(final StubRequest assertingRequest) {
+      final String url = assertingRequest.getUrlPath();
+      final List<String> methods = assertingRequest.getMethods();
+
+      if (url == null || methods == null || methods.isEmpty()) {
+         return fallbackBucket.size();
+      }
+
+      final String method = methods.get(0);
+      final StubBucket exactBucket = stubPathTrie.findBucket(method, url);
+      final StubBucket patternBucket = patternBuckets.get(method);
+
+      return (exactBucket == null ? 0 : exactBucket.size()) + (patternBucket == null ? 0 : patternBucket.size());
+   }
+}
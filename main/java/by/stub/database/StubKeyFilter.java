@@ -0,0 +1,149 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.database;
+
+import by.stub.yaml.stubs.StubHttpLifecycle;
+import by.stub.yaml.stubs.StubRequest;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bloom filter over the HTTP method and URL path pairs of loaded stubs. When it reports that a pair was never
+ * stubbed, the request is definitely not going to be matched and can be answered with 'not found' right away.
+ * Reported hits may be false positives and still have to go through the regular lookup.
+ * <p/>
+ * Stubs without URL or method are not added, as requests lacking those are never filtered. Stubs with URL pattern
+ * are not added either, requests are never filtered for HTTP methods stubbed with URL pattern.
+ */
+final class StubKeyFilter {
+
+   private static final int BITS_PER_KEY = 10;
+   private static final int HASH_FUNCTIONS = 4;
+   private static final int MIN_BITS = 64;
+
+   private final long[] bits;
+   private final int mask;
+   private final Set<String> patternMethods = new HashSet<String>();
+
+   StubKeyFilter(final List<StubHttpLifecycle> stubHttpLifecycles) {
+      int keys = 0;
+      for (final StubHttpLifecycle stubHttpLifecycle : stubHttpLifecycles) {
+         final List<String> methods = stubHttpLifecycle.getRequest().getMethods();
+         keys += (methods == null ? 0 : methods.size());
+      }
+
+      final int size = tableSizeFor(Math.max(MIN_BITS, keys * BITS_PER_KEY));
+      this.bits = new long[size >>> 6];
+      this.mask = size - 1;
+
+      for (final StubHttpLifecycle stubHttpLifecycle : stubHttpLifecycles) {
+         final StubRequest stubRequest = stubHttpLifecycle.getRequest();
+         final String url = stubRequest.getUrlPath();
+         final List<String> methods = stubRequest.getMethods();
+
+         if (url == null || methods == null) {
+            continue;
+         }
+
+         if (stubRequest.getUrlPattern() != null) {
+            patternMethods.addAll(methods);
+            continue;
+         }
+
+         for (final String method : methods) {
+            if (method != null) {
+               add(method, url);
+            }
+         }
+      }
+   }
+
+   /**
+    * @param assertingRequest incoming request
+    * @return false if no loaded stub could possibly match the request's method and URL
+    */
+   boolean mightMatch(final StubRequest assertingRequest) {
+      final String url = assertingRequest.getUrlPath();
+      final List<String> methods = assertingRequest.getMethods();
+
+      if (url == null || methods == null || methods.isEmpty() || methods.get(0) == null) {
+         return true;
+      }
+
+      if (!patternMethods.isEmpty() && patternMethods.contains(methods.get(0))) {
+         return true;
+      }
+
+      return mightContain(methods.get(0), url);
+   }
+
+   boolean mightContain(final String method, final String url) {
+      final int hash = hash(method, url);
+      final int increment = increment(hash);
+
+      for (int idx = 0; idx < HASH_FUNCTIONS; idx++) {
+         final int bit = (hash + idx * increment) & mask;
+         if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   private void add(final String method, final String url) {
+      final int hash = hash(method, url);
+      final int increment = increment(hash);
+
+      for (int idx = 0; idx < HASH_FUNCTIONS; idx++) {
+         final int bit = (hash + idx * increment) & mask;
+         bits[bit >>> 6] |= (1L << bit);
+      }
+   }
+
+   // Combines cached String hash codes, so that no key has to be concatenated on lookup
+   private static int hash(final String method, final String url) {
+      return mix(31 * method.hashCode() + url.hashCode());
+   }
+
+   // Second hash for double hashing, always odd so that it cycles through the whole table
+   private static int increment(final int hash) {
+      return mix(hash ^ 0x9E3779B9) | 1;
+   }
+
+   // MurmurHash3 32-bit finalizer
+   private static int mix(int hash) {
+      hash ^= hash >>> 16;
+      hash *= 0x85EBCA6B;
+      hash ^= hash >>> 13;
+      hash *= 0xC2B2AE35;
+      hash ^= hash >>> 16;
+
+      return hash;
+   }
+
+   private static int tableSizeFor(final int bitCount) {
+      final int highestBit = Integer.highestOneBit(bitCount);
+
+      return (highestBit == bitCount ? bitCount : highestBit << 1);
+   }
+}
@@ -0,0 +1,224 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.database;
+
+import by.stub.yaml.stubs.StubHttpLifecycle;
+import by.stub.yaml.stubs.StubRequest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, least recently used cache of matched stubs keyed by request fingerprint. A fingerprint consists of
+ * everything stubs of one snapshot can be matched on: method, URL, values of those headers and query params which are
+ * referenced by at least one stub, and content hash and length of the post body, if a stub at the method and URL of
+ * the request is matched on post body. Body of a request is not read for its fingerprint, unless it could be read
+ * for matching as well.
+ * <p/>
+ * Requests with equal fingerprints are matched by the same stub, unless their bodies differ with equal content hash
+ * and length. Therefore a cached stub is compared with the request again before it is returned, and a stub without
+ * post body is not cached for a body whose content hash is stubbed, so that such a collision only costs a cache miss.
+ * <p/>
+ * Entries are spread over segments by fingerprint hash, each one a separate least recently used map with its own
+ * lock, so that concurrent lookups do not all contend on the same lock.
+ * <p/>
+ * A cache belongs to a single snapshot, so reloading stubs starts with an empty cache. Requests which were not
+ * matched are not cached, so that unmatched request shapes can not evict the matched ones.
+ */
+final class StubMatchCache {
+
+   private static final int MAX_SEGMENTS = 16;
+   private static final int MIN_SEGMENT_SIZE = 64;
+   private static final Object ABSENT = new Object();
+   private static final Object NO_METHOD = new Object();
+
+   private final String[] headerNames;
+   private final String[] queryNames;
+   private final Segment[] segments;
+   private final AtomicLong hits;
+   private final AtomicLong misses;
+
+   StubMatchCache(final int maxSize, final List<StubHttpLifecycle> stubHttpLifecycles, final AtomicLong hits, final AtomicLong misses) {
+      final Set<String> referencedHeaderNames = new LinkedHashSet<String>();
+      final Set<String> referencedQueryNames = new LinkedHashSet<String>();
+
+      for (final StubHttpLifecycle stubHttpLifecycle : stubHttpLifecycles) {
+         final StubRequest stubRequest = stubHttpLifecycle.getRequest();
+         referencedHeaderNames.addAll(stubRequest.getHeaders().keySet());
+         referencedQueryNames.addAll(stubRequest.getQuery().keySet());
+      }
+
+      this.headerNames = referencedHeaderNames.toArray(new String[referencedHeaderNames.size()]);
+      this.queryNames = referencedQueryNames.toArray(new String[referencedQueryNames.size()]);
+      this.hits = hits;
+      this.misses = misses;
+
+      // Power of two segments of at least MIN_SEGMENT_SIZE entries, so a small cache stays a single exact LRU map
+      final int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maxSize / MIN_SEGMENT_SIZE)));
+      this.segments = new Segment[segmentCount];
+      for (int idx = 0; idx < segmentCount; idx++) {
+         segments[idx] = new Segment((maxSize + segmentCount - 1 - idx) / segmentCount);
+      }
+   }
+
+   StubHttpLifecycle findMatch(final StubRequest assertingRequest, final StubIndex stubIndex) {
+      final boolean isPostBodyMatched = stubIndex.isPostBodyMatched(assertingRequest);
+      final Fingerprint fingerprint = fingerprintOf(assertingRequest, isPostBodyMatched);
+      final Segment segment = segments[spread(fingerprint.hashCode()) & (segments.length - 1)];
+
+      final StubMatcher cachedStubMatcher = segment.get(fingerprint);
+      if (cachedStubMatcher != null && cachedStubMatcher.matches(assertingRequest)) {
+         hits.incrementAndGet();
+         return cachedStubMatcher.getStubHttpLifecycle();
+      }
+
+      misses.incrementAndGet();
+
+      final StubMatcher matchedStubMatcher = stubIndex.findMatcher(assertingRequest, false);
+      if (matchedStubMatcher == null) {
+         return null;
+      }
+
+      // A stub without post body may only be matched because a stubbed body of equal content hash was not,
+      // which does not hold for another body of the same content hash
+      if (!isPostBodyMatched || matchedStubMatcher.getPostBody() != null || !stubIndex.isPostBodyContentHashStubbed(assertingRequest)) {
+         segment.put(fingerprint, matchedStubMatcher);
+      }
+
+      return matchedStubMatcher.getStubHttpLifecycle();
+   }
+
+   int size() {
+      int size = 0;
+      for (final Segment segment : segments) {
+         size += segment.size();
+      }
+
+      return size;
+   }
+
+   private Fingerprint fingerprintOf(final StubRequest assertingRequest, final boolean isPostBodyMatched) {
+      final List<String> methods = assertingRequest.getMethods();
+      final Object[] parts = new Object[2 + headerNames.length + queryNames.length];
+
+      parts[0] = (methods == null ? ABSENT : (methods.isEmpty() ? NO_METHOD : methods.get(0)));
+      parts[1] = assertingRequest.getUrlPath();
+      addValues(parts, 2, headerNames, assertingRequest.getHeaders());
+      addValues(parts, 2 + headerNames.length, queryNames, assertingRequest.getQuery());
+
+      // Incoming body is not read, unless a stub at the method and URL of the request is matched on post body
+      if (!isPostBodyMatched) {
+         return new Fingerprint(parts, 0, -1);
+      }
+
+      return new Fingerprint(parts, assertingRequest.getPostBodyContentHash(), assertingRequest.getPostBodyLength());
+   }
+
+   private static void addValues(final Object[] parts, final int offset, final String[] names, final Map<String, String> asserting) {
+      for (int idx = 0; idx < names.length; idx++) {
+         final String value = asserting.get(names[idx]);
+         parts[offset + idx] = (value == null && !asserting.containsKey(names[idx]) ? ABSENT : value);
+      }
+   }
+
+   // Fingerprints which differ in low bits only still end up in different segments
+   private static int spread(final int hash) {
+      return hash ^ (hash >>> 16) ^ (hash >>> 8);
+   }
+
+   private static final class Segment {
+
+      private final Map<Fingerprint, StubMatcher> entries;
+
+      Segment(final int maxSize) {
+         this.entries = new LruMap(maxSize);
+      }
+
+      synchronized StubMatcher get(final Fingerprint fingerprint) {
+         return entries.get(fingerprint);
+      }
+
+      synchronized void put(final Fingerprint fingerprint, final StubMatcher stubMatcher) {
+         entries.put(fingerprint, stubMatcher);
+      }
+
+      synchronized int size() {
+         return entries.size();
+      }
+   }
+
+   private static final class LruMap extends LinkedHashMap<Fingerprint, StubMatcher> {
+
+      private static final long serialVersionUID = 1L;
+
+      private final int maxSize;
+
+      LruMap(final int maxSize) {
+         super(16, 0.75f, true);
+         this.maxSize = maxSize;
+      }
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Fingerprint, StubMatcher> eldest) {
+         return size() > maxSize;
+      }
+   }
+
+   private static final class Fingerprint {
+
+      private final Object[] parts;
+      private final long postBodyContentHash;
+      private final int postBodyLength;
+      private final int hashCode;
+
+      Fingerprint(final Object[] parts, final long postBodyContentHash, final int postBodyLength) {
+         this.parts = parts;
+         this.postBodyContentHash = postBodyContentHash;
+         this.postBodyLength = postBodyLength;
+         this.hashCode = 31 * (31 * Arrays.hashCode(parts) + (int) (postBodyContentHash ^ (postBodyContentHash >>> 32))) + postBodyLength;
+      }
+
+      @Override
+      public boolean equals(final Object other) {
+         if (this == other) {
+            return true;
+         }
+
+         if (!(other instanceof Fingerprint)) {
+            return false;
+         }
+
+         final Fingerprint that = (Fingerprint) other;
+
+         return hashCode == that.hashCode && postBodyContentHash == that.postBodyContentHash &&
+            postBodyLength == that.postBodyLength && Arrays.equals(parts, that.parts);
+      }
+
+      @Override
+      public int hashCode() {
+         return hashCode;
+      }
+   }
+}
@@ -0,0 +1,183 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.database;
+
+import by.stub.utils.StringUtils;
+import by.stub.yaml.stubs.StubHttpLifecycle;
+import by.stub.yaml.stubs.StubRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Stubbed request compiled once at load time into plain arrays, so that matching an incoming request
+ * does not allocate, unless the stubbed URL is a pattern. Follows the same rules as {@link StubRequest#equals(Object)},
+ * without its debug print-outs.
+ */
+final class StubMatcher {
+
+   private static final String[] EMPTY = new String[0];
+
+   private final StubHttpLifecycle stubHttpLifecycle;
+   private final int position;
+   private final String url;
+   private final Pattern urlPattern;
+   private final String[] methods;
+   private final String postBody;
+   private final long postBodyContentHash;
+   private final String[] headerNames;
+   private final String[] headerValues;
+   private final boolean authorizationHeaderOnly;
+   private final String[] queryNames;
+   private final String[] queryValues;
+   private final int maxBodySize;
+
+   StubMatcher(final StubHttpLifecycle stubHttpLifecycle, final int position) {
+      final StubRequest stubRequest = stubHttpLifecycle.getRequest();
+      final List<String> stubbedMethods = stubRequest.getMethods();
+      final String stubbedPostBody = stubRequest.getPostBody();
+      final Map<String, String> stubbedHeaders = stubRequest.getHeaders();
+
+      this.stubHttpLifecycle = stubHttpLifecycle;
+      this.position = position;
+      this.url = stubRequest.getUrlPath();
+      this.urlPattern = stubRequest.getUrlPattern();
+      this.methods = (stubbedMethods == null ? null : stubbedMethods.toArray(new String[stubbedMethods.size()]));
+      this.postBody = (StringUtils.isSet(stubbedPostBody) ? stubbedPostBody : null);
+      this.postBodyContentHash = stubRequest.getPostBodyContentHash();
+      this.headerNames = keysOf(stubbedHeaders);
+      this.headerValues = valuesOf(stubbedHeaders, headerNames);
+      this.authorizationHeaderOnly = headerNames.length == 1 && StubRequest.AUTH_HEADER.equals(headerNames[0]);
+      this.queryNames = keysOf(stubRequest.getQuery());
+      this.queryValues = valuesOf(stubRequest.getQuery(), queryNames);
+      this.maxBodySize = stubRequest.getMaxBodySize();
+   }
+
+   StubHttpLifecycle getStubHttpLifecycle() {
+      return stubHttpLifecycle;
+   }
+
+   // Position of the stub in the loaded configuration, used to keep the first loaded stub winning
+   int getPosition() {
+      return position;
+   }
+
+   // Normalized post body, or null if the stub does not constrain the post body
+   String getPostBody() {
+      return postBody;
+   }
+
+   long getPostBodyContentHash() {
+      return postBodyContentHash;
+   }
+
+   // Stubbed maximum size of request body, or -1 if the stub does not limit the size
+   int getMaxBodySize() {
+      return maxBodySize;
+   }
+
+   boolean matches(final StubRequest assertingRequest) {
+      // Content hash is compared first, so that incoming body is not decoded unless it is likely to match.
+      // Body which was only hashed while read can be matched on its content hash only
+      if (postBody != null && (postBodyContentHash != assertingRequest.getPostBodyContentHash() ||
+         (!assertingRequest.isPostBodyHashOnly() && !postBody.equals(assertingRequest.getPostBody())))) {
+         return false;
+      }
+
+      if (!methodMatches(assertingRequest.getMethods())) {
+         return false;
+      }
+
+      if (!urlMatches(assertingRequest.getUrlPath())) {
+         return false;
+      }
+
+      if (headerNames.length > 0) {
+         // Authorization header is dealt with after matching of assertion request
+         if (authorizationHeaderOnly) {
+            return true;
+         }
+
+         if (!entriesMatch(headerNames, headerValues, assertingRequest.getHeaders())) {
+            return false;
+         }
+      }
+
+      return entriesMatch(queryNames, queryValues, assertingRequest.getQuery());
+   }
+
+   boolean urlMatches(final String assertingUrl) {
+      if (urlPattern != null) {
+         return assertingUrl != null && urlPattern.matcher(assertingUrl).matches();
+      }
+
+      return (url == null ? assertingUrl == null : url.equals(assertingUrl));
+   }
+
+   private boolean methodMatches(final List<String> assertingMethods) {
+      if (methods == null || assertingMethods == null) {
+         return methods == null && assertingMethods == null;
+      }
+
+      if (assertingMethods.isEmpty()) {
+         return methods.length == 0;
+      }
+
+      final String assertingMethod = assertingMethods.get(0);
+      for (final String method : methods) {
+         if (method == null ? assertingMethod == null : method.equals(assertingMethod)) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   private static boolean entriesMatch(final String[] names, final String[] values, final Map<String, String> asserting) {
+      for (int idx = 0; idx < names.length; idx++) {
+         final String value = values[idx];
+         final String assertingValue = asserting.get(names[idx]);
+
+         if (value == null ? (assertingValue != null || !asserting.containsKey(names[idx])) : !value.equals(assertingValue)) {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   private static String[] keysOf(final Map<String, String> map) {
+      if (map == null || map.isEmpty()) {
+         return EMPTY;
+      }
+
+      return map.keySet().toArray(new String[map.size()]);
+   }
+
+   private static String[] valuesOf(final Map<String, String> map, final String[] keys) {
+      final String[] values = new String[keys.length];
+      for (int idx = 0; idx < keys.length; idx++) {
+         values[idx] = map.get(keys[idx]);
+      }
+
+      return values;
+   }
+}
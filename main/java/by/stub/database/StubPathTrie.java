@@ -0,0 +1,197 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.database;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trie of stubbed URL paths split into segments at '/'. Every node holds the buckets of stubs, keyed by HTTP method,
+ * whose URL ends at that node, so the cost of a lookup depends on the depth of the requested path and not on the
+ * number of loaded stubs.
+ * <p/>
+ * Paths are split on every '/', keeping empty segments, so that a lookup succeeds only for the exact stubbed path.
+ * Children of a node are kept sorted by segment hash code and are looked up directly within the requested path
+ * string, so a lookup does not allocate. The trie has to be frozen once all stubs were added, before any lookup.
+ */
+final class StubPathTrie {
+
+   private final Node root = new Node();
+
+   StubPathTrie() {
+
+   }
+
+   StubBucket getOrCreateBucket(final String method, final String url) {
+      Node node = root;
+      int segmentStart = 0;
+
+      while (true) {
+         final int segmentEnd = segmentEnd(url, segmentStart);
+         node = node.getOrCreateChild(url.substring(segmentStart, segmentEnd));
+
+         if (segmentEnd == url.length()) {
+            return node.getOrCreateBucket(method);
+         }
+         segmentStart = segmentEnd + 1;
+      }
+   }
+
+   void freeze() {
+      root.freeze();
+   }
+
+   /**
+    * @param method HTTP method of incoming request
+    * @param url    URL path of incoming request
+    * @return bucket of stubs stubbed with exactly the given method and URL path, or null if there are none
+    */
+   StubBucket findBucket(final String method, final String url) {
+      Node node = root;
+      int segmentStart = 0;
+
+      while (true) {
+         final int segmentEnd = segmentEnd(url, segmentStart);
+         node = node.findChild(url, segmentStart, segmentEnd);
+
+         if (node == null) {
+            return null;
+         }
+
+         if (segmentEnd == url.length()) {
+            return node.findBucket(method);
+         }
+         segmentStart = segmentEnd + 1;
+      }
+   }
+
+   private static int segmentEnd(final String url, final int segmentStart) {
+      final int slashIdx = url.indexOf('/', segmentStart);
+
+      return (slashIdx < 0 ? url.length() : slashIdx);
+   }
+
+   // Same as String#hashCode() of the given region, computed without creating a substring
+   private static int segmentHash(final String url, final int segmentStart, final int segmentEnd) {
+      int hash = 0;
+      for (int idx = segmentStart; idx < segmentEnd; idx++) {
+         hash = 31 * hash + url.charAt(idx);
+      }
+
+      return hash;
+   }
+
+   private static final class Node {
+
+      private static final Node[] NO_CHILDREN = new Node[0];
+      private static final int[] NO_HASHES = new int[0];
+
+      private final String segment;
+      private Map<String, Node> childrenBySegment = new HashMap<String, Node>();
+      private Map<String, StubBucket> bucketsByMethod;
+      private Node[] children = NO_CHILDREN;
+      private int[] childHashes = NO_HASHES;
+
+      Node() {
+         this(null);
+      }
+
+      Node(final String segment) {
+         this.segment = segment;
+      }
+
+      Node getOrCreateChild(final String childSegment) {
+         Node child = childrenBySegment.get(childSegment);
+         if (child == null) {
+            child = new Node(childSegment);
+            childrenBySegment.put(childSegment, child);
+         }
+
+         return child;
+      }
+
+      StubBucket getOrCreateBucket(final String method) {
+         if (bucketsByMethod == null) {
+            bucketsByMethod = new HashMap<String, StubBucket>(4);
+         }
+
+         StubBucket bucket = bucketsByMethod.get(method);
+         if (bucket == null) {
+            bucket = new StubBucket();
+            bucketsByMethod.put(method, bucket);
+         }
+
+         return bucket;
+      }
+
+      void freeze() {
+         final Node[] sortedChildren = childrenBySegment.values().toArray(new Node[childrenBySegment.size()]);
+         Arrays.sort(sortedChildren, new Comparator<Node>() {
+            @Override
+            public int compare(final Node one, final Node other) {
+               final int oneHash = one.segment.hashCode();
+               final int otherHash = other.segment.hashCode();
+
+               return (oneHash < otherHash ? -1 : (oneHash == otherHash ? 0 : 1));
+            }
+         });
+
+         children = sortedChildren;
+         childHashes = new int[sortedChildren.length];
+         for (int idx = 0; idx < sortedChildren.length; idx++) {
+            childHashes[idx] = sortedChildren[idx].segment.hashCode();
+            sortedChildren[idx].freeze();
+         }
+
+         childrenBySegment = null;
+      }
+
+      Node findChild(final String url, final int segmentStart, final int segmentEnd) {
+         final int hash = segmentHash(url, segmentStart, segmentEnd);
+         int idx = Arrays.binarySearch(childHashes, hash);
+
+         if (idx < 0) {
+            return null;
+         }
+
+         // Several children may share the same hash code, binary search may land on any of them
+         while (idx > 0 && childHashes[idx - 1] == hash) {
+            idx--;
+         }
+
+         final int segmentLength = segmentEnd - segmentStart;
+         for (; idx < childHashes.length && childHashes[idx] == hash; idx++) {
+            final String childSegment = children[idx].segment;
+
+            if (childSegment.length() == segmentLength && url.regionMatches(segmentStart, childSegment, 0, segmentLength)) {
+               return children[idx];
+            }
+         }
+
+         return null;
+      }
+
+      StubBucket findBucket(final String method) {
+         return (bucketsByMethod == null ? null : bucketsByMethod.get(method));
+      }
+   }
+}
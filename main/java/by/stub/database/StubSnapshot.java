@@ -0,0 +1,75 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.database;
+
+import by.stub.yaml.stubs.StubHttpLifecycle;
+import by.stub.yaml.stubs.StubRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of one loaded stub configuration together with everything derived from it.
+ * A snapshot is fully built before it is published, so readers never lock and never observe partially loaded data.
+ */
+final class StubSnapshot {
+
+   private final List<StubHttpLifecycle> stubHttpLifecycles;
+   private final StubIndex stubIndex;
+   private final StubKeyFilter stubKeyFilter;
+   private final StubMatchCache stubMatchCache;
+
+   /**
+    * @param stubHttpLifecycles loaded stubs
+    * @param stubMatchCache     empty match cache built for the given stubs, or null if matches should not be cached
+    */
+   StubSnapshot(final List<StubHttpLifecycle> stubHttpLifecycles, final StubMatchCache stubMatchCache) {
+      this.stubHttpLifecycles = Collections.unmodifiableList(new ArrayList<StubHttpLifecycle>(stubHttpLifecycles));
+      this.stubIndex = new StubIndex(this.stubHttpLifecycles);
+      this.stubKeyFilter = new StubKeyFilter(this.stubHttpLifecycles);
+      this.stubMatchCache = stubMatchCache;
+   }
+
+   List<StubHttpLifecycle> getStubHttpLifecycles() {
+      return stubHttpLifecycles;
+   }
+
+   boolean mightMatch(final StubRequest assertingRequest) {
+      return stubKeyFilter.mightMatch(assertingRequest);
+   }
+
+   StubHttpLifecycle findMatch(final StubRequest assertingRequest, final boolean debug) {
+      // Cache is bypassed in debug mode, so that comparison print-outs are shown for every request
+      if (debug || stubMatchCache == null) {
+         return stubIndex.findMatch(assertingRequest, debug);
+      }
+
+      return stubMatchCache.findMatch(assertingRequest, stubIndex);
+   }
+
+   int findMaxBodySize(final StubRequest assertingRequest) {
+      return stubIndex.findMaxBodySize(assertingRequest);
+   }
+
+   int getMatchCacheEntries() {
+      return (stubMatchCache == null ? 0 : stubMatchCache.size());
+   }
+}
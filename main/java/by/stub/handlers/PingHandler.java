@@ -19,11 +19,15 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 
 package by.stub.handlers;
 
+import by.stub.cli.ANSITerminal;
+import by.stub.cli.CommandLineInterpreter;
 import by.stub.database.DataStore;
 import by.stub.server.JettyContext;
 import by.stub.utils.ConsoleUtils;
+import by.stub.utils.FileContentCache;
 import by.stub.utils.HandlerUtils;
 import by.stub.utils.ReflectionUtils;
+import by.stub.utils.RequestBody;
 import by.stub.utils.StringUtils;
 import by.stub.yaml.YamlParser;
 import by.stub.yaml.stubs.StubHttpLifecycle;
@@ -33,8 +37,10 @@ import org.eclipse.jetty.http.HttpHeaders;
 import org.eclipse.jetty.http.HttpSchemes;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.server.AbstractConnector;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -70,7 +76,7 @@ public final class PingHandler extends AbstractHandler {
       baseRequest.setHandled(true);
       response.setContentType(MimeTypes.TEXT_HTML_UTF_8);
       response.setStatus(HttpStatus.OK_200);
-      response.setHeader(HttpHeaders.SERVER, HandlerUtils.constructHeaderServerName());
+      response.setHeader(HttpHeaders.SERVER, HandlerUtils.HEADER_SERVER_NAME);
 
       try {
          response.getWriter().println(getConfigDataPresentation());
@@ -115,6 +121,14 @@ public final class PingHandler extends AbstractHandler {
       builder.append(populateTableRowTemplate("SSL PORT", CSS_CLASS_NO_HIGHLIGHTABLE, sslPort));
       builder.append(populateTableRowTemplate("HOST", CSS_CLASS_NO_HIGHLIGHTABLE, host));
       builder.append(populateTableRowTemplate("CONFIGURATION", CSS_CLASS_NO_HIGHLIGHTABLE, yamlParser.getLoadedConfigYamlPath()));
+      builder.append(populateTableRowTemplate("MATCH CACHE", CSS_CLASS_NO_HIGHLIGHTABLE, buildMatchCacheStatus()));
+      builder.append(populateTableRowTemplate("FILE CACHE", CSS_CLASS_NO_HIGHLIGHTABLE, buildFileCacheStatus()));
+      builder.append(populateTableRowTemplate("REQUEST BODY LIMIT", CSS_CLASS_NO_HIGHLIGHTABLE, buildRequestBodyLimitStatus()));
+      builder.append(populateTableRowTemplate("CONSOLE LOG", CSS_CLASS_NO_HIGHLIGHTABLE, buildConsoleLogStatus()));
+      builder.append(populateTableRowTemplate("THREAD POOL", CSS_CLASS_NO_HIGHLIGHTABLE, buildThreadPoolStatus()));
+      builder.append(populateTableRowTemplate("CLIENT CONNECTOR", CSS_CLASS_NO_HIGHLIGHTABLE, buildConnectorStatus(jettyContext.getStubsConnector())));
+      builder.append(populateTableRowTemplate("SSL CONNECTOR", CSS_CLASS_NO_HIGHLIGHTABLE, buildConnectorStatus(jettyContext.getStubsSslConnector())));
+      builder.append(populateTableRowTemplate("ADMIN CONNECTOR", CSS_CLASS_NO_HIGHLIGHTABLE, buildConnectorStatus(jettyContext.getAdminConnector())));
 
       final String endpointRegistration = HandlerUtils.linkifyRequestUrl(HttpSchemes.HTTP,
          StubsRegistrationHandler.RESOURCE_STUBDATA_NEW, host, adminPort);
@@ -125,6 +139,55 @@ public final class PingHandler extends AbstractHandler {
       return String.format(systemStatusTable, builder.toString());
    }
 
+   private String buildMatchCacheStatus() {
+      if (!dataStore.isMatchCacheEnabled()) {
+         return "disabled";
+      }
+
+      return String.format("%s of %s entries, %s hits, %s misses", dataStore.getMatchCacheEntries(), dataStore.getMatchCacheSize(),
+         dataStore.getMatchCacheHits(), dataStore.getMatchCacheMisses());
+   }
+
+   private String buildFileCacheStatus() {
+      final FileContentCache fileContentCache = yamlParser.getFileContentCache();
+      if (fileContentCache == null) {
+         return "disabled";
+      }
+
+      return String.format("%s files, %s of %s bytes, %s hits, %s misses, %s evictions", fileContentCache.getEntries(),
+         fileContentCache.getSizeBytes(), fileContentCache.getCapacityBytes(), fileContentCache.getHits(),
+         fileContentCache.getMisses(), fileContentCache.getEvictions());
+   }
+
+   private String buildRequestBodyLimitStatus() {
+      final int maxRequestBodySize = CommandLineInterpreter.getMaxRequestBodySize();
+      final String limit = (maxRequestBodySize == RequestBody.UNLIMITED ? "unlimited" : String.format("%s bytes", maxRequestBodySize));
+
+      return String.format("%s, %s rejected", limit, dataStore.getRejectedRequestBodies());
+   }
+
+   private String buildConsoleLogStatus() {
+      if (ANSITerminal.isMute()) {
+         return "muted";
+      }
+
+      return String.format("%s messages dropped", ANSITerminal.getDroppedMessages());
+   }
+
+   private String buildThreadPoolStatus() {
+      final QueuedThreadPool threadPool = jettyContext.getThreadPool();
+
+      return String.format("%s to %s threads, %s started, %s idle", threadPool.getMinThreads(), threadPool.getMaxThreads(),
+         threadPool.getThreads(), threadPool.getIdleThreads());
+   }
+
+   private String buildConnectorStatus(final AbstractConnector connector) {
+      return String.format("%s acceptors, accept queue %s, idle timeout %s ms, request header %s, response header %s, " +
+         "request buffer %s, response buffer %s bytes", connector.getAcceptors(), connector.getAcceptQueueSize(),
+         connector.getMaxIdleTime(), connector.getRequestHeaderSize(), connector.getResponseHeaderSize(),
+         connector.getRequestBufferSize(), connector.getResponseBufferSize());
+   }
+
    private String buildPageBodyHtml(final String htmlTemplateContent, final String tableName, final Map<String, String> stubObjectProperties) throws Exception {
       final StringBuilder builder = new StringBuilder();
 
@@ -0,0 +1,99 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.handlers;
+
+import by.stub.exception.Stubby4JException;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jetty.http.HttpMethods;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.io.Buffer;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serves classpath assets, loaded into memory once, for their exact request paths. Any other request
+ * is passed to the wrapped handler straight away, without resolving classpath resources.
+ */
+public final class StaticAssetHandler extends HandlerWrapper {
+
+   private static final MimeTypes MIME_TYPES = new MimeTypes();
+
+   private final Map<String, byte[]> assetContents = new HashMap<String, byte[]>();
+   private final Map<String, String> assetContentTypes = new HashMap<String, String>();
+
+   public StaticAssetHandler() {
+
+   }
+
+   /**
+    * @param pathInfo          exact request path at which the asset is served, ie: /favicon.ico
+    * @param classPathResource absolute classpath resource path, ie: /ui/images/favicon.ico
+    * @return this handler
+    */
+   public StaticAssetHandler withAsset(final String pathInfo, final String classPathResource) {
+      final InputStream inputStream = StaticAssetHandler.class.getResourceAsStream(classPathResource);
+      if (inputStream == null) {
+         throw new Stubby4JException(String.format("Could not find resource %s", classPathResource));
+      }
+
+      try {
+         assetContents.put(pathInfo, IOUtils.toByteArray(inputStream));
+      } catch (final IOException ex) {
+         throw new Stubby4JException(String.format("Could not load resource %s", classPathResource), ex);
+      } finally {
+         IOUtils.closeQuietly(inputStream);
+      }
+
+      final Buffer mimeType = MIME_TYPES.getMimeByExtension(classPathResource);
+      assetContentTypes.put(pathInfo, (mimeType == null ? MimeTypes.TEXT_HTML : mimeType.toString()));
+
+      return this;
+   }
+
+   @Override
+   public void handle(final String target, final Request baseRequest, final HttpServletRequest request, final HttpServletResponse response) throws IOException, ServletException {
+      final String method = request.getMethod();
+      final boolean isHead = HttpMethods.HEAD.equals(method);
+      final byte[] assetContent = (isHead || HttpMethods.GET.equals(method) ? assetContents.get(target) : null);
+
+      if (assetContent == null) {
+         super.handle(target, baseRequest, request, response);
+         return;
+      }
+
+      baseRequest.setHandled(true);
+      response.setStatus(HttpStatus.OK_200);
+      response.setContentType(assetContentTypes.get(target));
+      response.setContentLength(assetContent.length);
+
+      if (!isHead) {
+         response.getOutputStream().write(assetContent);
+      }
+   }
+}
@@ -20,13 +20,17 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 package by.stub.handlers;
 
 import by.stub.database.DataStore;
+import by.stub.exception.Stubby4JException;
 import by.stub.handlers.strategy.HandlingStrategyFactory;
 import by.stub.handlers.strategy.StubResponseHandlingStrategy;
 import by.stub.utils.ConsoleUtils;
 import by.stub.utils.HandlerUtils;
+import by.stub.utils.StringUtils;
 import by.stub.yaml.stubs.StubRequest;
 import by.stub.yaml.stubs.StubResponse;
+import by.stub.yaml.stubs.StubResponseTypes;
 import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.AsyncContinuation;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.handler.AbstractHandler;
 
@@ -34,10 +38,13 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 public class StubsHandler extends AbstractHandler {
 
    private static final String NAME = "stubs";
+   private static final String ATTRIBUTE_ASSERTION_REQUEST = "by.stub.handlers.StubsHandler.assertionStubRequest";
+   private static final String ATTRIBUTE_FOUND_RESPONSE = "by.stub.handlers.StubsHandler.foundStubResponse";
    private final DataStore dataStore;
 
    public StubsHandler(final DataStore dataStore) {
@@ -49,20 +56,103 @@ public class StubsHandler extends AbstractHandler {
                       final Request baseRequest,
                       final HttpServletRequest request,
                       final HttpServletResponse response) throws IOException, ServletException {
-      ConsoleUtils.logIncomingRequest(request, NAME);
 
       baseRequest.setHandled(true);
 
+      final AsyncContinuation continuation = baseRequest.getAsyncContinuation();
+      if (continuation != null && continuation.isExpired()) {
+         // Request dispatched again once the stubbed latency is over, the response was found beforehand
+         final StubRequest assertionStubRequest = (StubRequest) continuation.getAttribute(ATTRIBUTE_ASSERTION_REQUEST);
+         final StubResponse foundStubResponse = (StubResponse) continuation.getAttribute(ATTRIBUTE_FOUND_RESPONSE);
+         respond(request, response, assertionStubRequest, foundStubResponse);
+
+         return;
+      }
+
+      ConsoleUtils.logIncomingRequest(request, NAME);
+
       final StubRequest assertionStubRequest = StubRequest.createFromHttpServletRequest(request);
+
+      // Body announced to be too large is rejected before it is read, otherwise the limit is enforced while reading
+      // or discarding the body
       final StubResponse foundStubResponse = dataStore.findStubResponseFor(assertionStubRequest);
+
+      // Body, which no compared stub was matched on, is dropped without being buffered. Not found response shows
+      // the body, so it is read before the response, and rejected here as well if too large
+      if (!assertionStubRequest.isBodyTooLarge()) {
+         if (foundStubResponse.getStubResponseType() == StubResponseTypes.NOTFOUND) {
+            assertionStubRequest.readUnreadBody();
+         } else {
+            assertionStubRequest.discardUnreadBody();
+         }
+      }
+
+      if (assertionStubRequest.isBodyTooLarge()) {
+         rejectRequestBody(response, assertionStubRequest.getBodySizeLimit());
+         return;
+      }
+
+      final long latency;
+      try {
+         latency = getLatency(foundStubResponse);
+      } catch (final NumberFormatException ex) {
+         HandlerUtils.configureErrorResponse(response, HttpStatus.INTERNAL_SERVER_ERROR_500, ex.toString());
+         return;
+      }
+
+      if (latency > 0) {
+         if (continuation != null && baseRequest.isAsyncSupported()) {
+            suspend(continuation, latency, assertionStubRequest, foundStubResponse);
+
+            return;
+         }
+
+         sleep(latency);
+      }
+
+      respond(request, response, assertionStubRequest, foundStubResponse);
+   }
+
+   /**
+    * Suspends the request for the stubbed latency without holding on to the worker thread. The suspended request
+    * expires on the connector's timeout queue, which is shared by all connections, and is then dispatched again
+    */
+   private void suspend(final AsyncContinuation continuation, final long latency, final StubRequest assertionStubRequest, final StubResponse foundStubResponse) {
+      continuation.setAttribute(ATTRIBUTE_ASSERTION_REQUEST, assertionStubRequest);
+      continuation.setAttribute(ATTRIBUTE_FOUND_RESPONSE, foundStubResponse);
+      continuation.setTimeout(latency);
+      continuation.suspend();
+   }
+
+   private void respond(final HttpServletRequest request, final HttpServletResponse response, final StubRequest assertionStubRequest, final StubResponse foundStubResponse) throws IOException {
       final StubResponseHandlingStrategy strategyStubResponse = HandlingStrategyFactory.identifyHandlingStrategyFor(foundStubResponse);
 
       try {
-         strategyStubResponse.handle(response, assertionStubRequest);
+         strategyStubResponse.handle(response, assertionStubRequest, foundStubResponse);
          ConsoleUtils.logOutgoingResponse(request, response, NAME);
 
       } catch (final Exception ex) {
          HandlerUtils.configureErrorResponse(response, HttpStatus.INTERNAL_SERVER_ERROR_500, ex.toString());
       }
    }
+
+   private void rejectRequestBody(final HttpServletResponse response, final int maxBodySize) throws IOException {
+      dataStore.countRejectedRequestBody();
+      HandlerUtils.configureErrorResponse(response, HttpStatus.REQUEST_ENTITY_TOO_LARGE_413,
+         String.format("Request body exceeds maximum size of %s bytes", maxBodySize));
+   }
+
+   private static long getLatency(final StubResponse foundStubResponse) {
+      final String latency = foundStubResponse.getLatency();
+
+      return (StringUtils.isSet(latency) ? Long.parseLong(latency) : 0);
+   }
+
+   private static void sleep(final long latency) {
+      try {
+         TimeUnit.MILLISECONDS.sleep(latency);
+      } catch (final InterruptedException e) {
+         throw new Stubby4JException(e);
+      }
+   }
 }
\ No newline at end of file
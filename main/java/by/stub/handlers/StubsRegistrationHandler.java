@@ -62,7 +62,7 @@ public class StubsRegistrationHandler extends AbstractHandler {
       baseRequest.setHandled(true);
       response.setContentType(MimeTypes.TEXT_HTML_UTF_8);
       response.setStatus(HttpStatus.OK_200);
-      response.setHeader(HttpHeaders.SERVER, HandlerUtils.constructHeaderServerName());
+      response.setHeader(HttpHeaders.SERVER, HandlerUtils.HEADER_SERVER_NAME);
 
       if (!request.getMethod().equalsIgnoreCase("post")) {
          final String errorMessage = String.format("Method %s is not allowed on URI %s", request.getMethod(), RESOURCE_STUBDATA_NEW);
@@ -19,52 +19,78 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 
 package by.stub.handlers.strategy;
 
-import by.stub.exception.Stubby4JException;
-import by.stub.utils.HandlerUtils;
+import by.stub.cli.CommandLineInterpreter;
+import by.stub.utils.CompressionUtils;
 import by.stub.utils.StringUtils;
 import by.stub.yaml.stubs.StubRequest;
 import by.stub.yaml.stubs.StubResponse;
+import org.eclipse.jetty.http.HttpHeaders;
+import org.eclipse.jetty.io.nio.DirectNIOBuffer;
+import org.eclipse.jetty.server.AbstractHttpConnection;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 
 public final class DefaultResponseHandlingStrategy implements StubResponseHandlingStrategy {
 
-   private final StubResponse foundStubResponse;
+   DefaultResponseHandlingStrategy() {
 
-   public DefaultResponseHandlingStrategy(final StubResponse foundStubResponse) {
-      this.foundStubResponse = foundStubResponse;
    }
 
    @Override
-   public void handle(final HttpServletResponse response, final StubRequest assertionStubRequest) throws IOException {
-      HandlerUtils.setResponseMainHeaders(response);
-      setStubResponseHeaders(foundStubResponse, response);
-
-      if (StringUtils.isSet(foundStubResponse.getLatency())) {
-         try {
-            final long latency = Long.parseLong(foundStubResponse.getLatency());
-            TimeUnit.MILLISECONDS.sleep(latency);
-         } catch (final InterruptedException e) {
-            throw new Stubby4JException(e);
-         }
-      }
+   public void handle(final HttpServletResponse response, final StubRequest assertionStubRequest, final StubResponse foundStubResponse) throws IOException {
+      foundStubResponse.getResponseHeaders().writeTo(response);
+
       response.setStatus(Integer.parseInt(foundStubResponse.getStatus()));
 
-      final byte[] responseBody = foundStubResponse.getResponseBody();
+      final ByteBuffer responseBody = negotiateResponseBody(response, assertionStubRequest, foundStubResponse);
       final OutputStream streamOut = response.getOutputStream();
-      streamOut.write(responseBody);
+      writeResponseBody(response, responseBody, streamOut);
       streamOut.flush();
       streamOut.close();
    }
 
-   private void setStubResponseHeaders(final StubResponse stubResponse, final HttpServletResponse response) {
-      response.setCharacterEncoding(StringUtils.UTF_8);
-      for (Map.Entry<String, String> entry : stubResponse.getHeaders().entrySet()) {
-         response.setHeader(entry.getKey(), entry.getValue());
+   private ByteBuffer negotiateResponseBody(final HttpServletResponse response, final StubRequest assertionStubRequest, final StubResponse foundStubResponse) {
+      if (!CommandLineInterpreter.isCompressing() || !foundStubResponse.isCompressible()) {
+         return foundStubResponse.getResponseBodyBuffer();
+      }
+
+      response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+      final String acceptEncoding = assertionStubRequest.getHeaders().get(StringUtils.toLower(HttpHeaders.ACCEPT_ENCODING));
+      final String contentEncoding = CompressionUtils.negotiateContentEncoding(acceptEncoding);
+      if (contentEncoding == null) {
+         return foundStubResponse.getResponseBodyBuffer();
+      }
+
+      final ByteBuffer compressedBody = foundStubResponse.getCompressedBodyBuffer(contentEncoding);
+      if (compressedBody == null) {
+         return foundStubResponse.getResponseBodyBuffer();
+      }
+
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+
+      return compressedBody;
+   }
+
+   private void writeResponseBody(final HttpServletResponse response, final ByteBuffer responseBody, final OutputStream streamOut) throws IOException {
+      if (responseBody.hasArray()) {
+         streamOut.write(responseBody.array(), responseBody.arrayOffset() + responseBody.position(), responseBody.remaining());
+         return;
       }
+
+      response.setContentLength(responseBody.remaining());
+
+      // Memory-mapped file content is handed over to the connector, which writes it to the socket channel
+      // straight from the mapping, without copying it onto the heap
+      if (streamOut instanceof AbstractHttpConnection.Output) {
+         ((AbstractHttpConnection.Output) streamOut).sendContent(new DirectNIOBuffer(responseBody, true));
+         return;
+      }
+
+      Channels.newChannel(streamOut).write(responseBody);
    }
 }
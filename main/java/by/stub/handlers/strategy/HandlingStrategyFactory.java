@@ -23,6 +23,11 @@ import by.stub.yaml.stubs.StubResponse;
 
 public final class HandlingStrategyFactory {
 
+   private static final StubResponseHandlingStrategy NOT_FOUND_STRATEGY = new NotFoundResponseHandlingStrategy();
+   private static final StubResponseHandlingStrategy UNAUTHORIZED_STRATEGY = new UnauthorizedResponseHandlingStrategy();
+   private static final StubResponseHandlingStrategy REDIRECT_STRATEGY = new RedirectResponseHandlingStrategy();
+   private static final StubResponseHandlingStrategy DEFAULT_STRATEGY = new DefaultResponseHandlingStrategy();
+
    private HandlingStrategyFactory() {
 
    }
@@ -31,16 +36,16 @@ public final class HandlingStrategyFactory {
 
       switch (foundStubResponse.getStubResponseType()) {
          case NOTFOUND:
-            return new NotFoundResponseHandlingStrategy();
+            return NOT_FOUND_STRATEGY;
 
          case UNAUTHORIZED:
-            return new UnauthorizedResponseHandlingStrategy();
+            return UNAUTHORIZED_STRATEGY;
 
          case REDIRECT:
-            return new RedirectResponseHandlingStrategy(foundStubResponse);
+            return REDIRECT_STRATEGY;
 
          default:
-            return new DefaultResponseHandlingStrategy(foundStubResponse);
+            return DEFAULT_STRATEGY;
 
       }
    }
@@ -22,6 +22,7 @@ package by.stub.handlers.strategy;
 import by.stub.utils.HandlerUtils;
 import by.stub.utils.StringUtils;
 import by.stub.yaml.stubs.StubRequest;
+import by.stub.yaml.stubs.StubResponse;
 import org.eclipse.jetty.http.HttpStatus;
 
 import javax.servlet.http.HttpServletResponse;
@@ -29,12 +30,12 @@ import java.io.IOException;
 
 public final class NotFoundResponseHandlingStrategy implements StubResponseHandlingStrategy {
 
-   public NotFoundResponseHandlingStrategy() {
+   NotFoundResponseHandlingStrategy() {
 
    }
 
    @Override
-   public void handle(final HttpServletResponse response, final StubRequest assertionStubRequest) throws IOException {
+   public void handle(final HttpServletResponse response, final StubRequest assertionStubRequest, final StubResponse foundStubResponse) throws IOException {
       HandlerUtils.setResponseMainHeaders(response);
       final String postMessage = (StringUtils.isSet(assertionStubRequest.getPostBody().toString())
          ? String.format("%s%s", " for post data: ", assertionStubRequest.getPostBody()) : "");
@@ -19,38 +19,24 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 
 package by.stub.handlers.strategy;
 
-import by.stub.exception.Stubby4JException;
 import by.stub.utils.HandlerUtils;
-import by.stub.utils.StringUtils;
 import by.stub.yaml.stubs.StubRequest;
 import by.stub.yaml.stubs.StubResponse;
 import org.eclipse.jetty.http.HttpHeaders;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
 
 public class RedirectResponseHandlingStrategy implements StubResponseHandlingStrategy {
 
-   private final StubResponse foundStubResponse;
+   RedirectResponseHandlingStrategy() {
 
-   public RedirectResponseHandlingStrategy(final StubResponse foundStubResponse) {
-      this.foundStubResponse = foundStubResponse;
    }
 
    @Override
-   public void handle(final HttpServletResponse response, final StubRequest assertionStubRequest) throws IOException {
+   public void handle(final HttpServletResponse response, final StubRequest assertionStubRequest, final StubResponse foundStubResponse) throws IOException {
       HandlerUtils.setResponseMainHeaders(response);
 
-      if (StringUtils.isSet(foundStubResponse.getLatency())) {
-         try {
-            final long latency = Long.parseLong(foundStubResponse.getLatency());
-            TimeUnit.MILLISECONDS.sleep(latency);
-         } catch (final InterruptedException e) {
-            throw new Stubby4JException(e);
-         }
-      }
-
       response.setStatus(Integer.parseInt(foundStubResponse.getStatus()));
       response.setHeader(HttpHeaders.LOCATION, foundStubResponse.getHeaders().get("location"));
       response.setHeader(HttpHeaders.CONNECTION, "close");
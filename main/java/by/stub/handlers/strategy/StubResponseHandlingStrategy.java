@@ -20,10 +20,16 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 package by.stub.handlers.strategy;
 
 import by.stub.yaml.stubs.StubRequest;
+import by.stub.yaml.stubs.StubResponse;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+/**
+ * Strategies are stateless and shared by all requests, the found stub response is passed in with every request
+ *
+ * @see HandlingStrategyFactory
+ */
 public interface StubResponseHandlingStrategy {
-   void handle(final HttpServletResponse response, final StubRequest assertionStubRequest) throws IOException;
+   void handle(final HttpServletResponse response, final StubRequest assertionStubRequest, final StubResponse foundStubResponse) throws IOException;
 }
@@ -22,6 +22,7 @@ package by.stub.handlers.strategy;
 import by.stub.utils.HandlerUtils;
 import by.stub.utils.StringUtils;
 import by.stub.yaml.stubs.StubRequest;
+import by.stub.yaml.stubs.StubResponse;
 import org.apache.commons.codec.binary.Base64;
 import org.eclipse.jetty.http.HttpStatus;
 
@@ -31,12 +32,12 @@ import java.io.IOException;
 
 public final class UnauthorizedResponseHandlingStrategy implements StubResponseHandlingStrategy {
 
-   public UnauthorizedResponseHandlingStrategy() {
+   UnauthorizedResponseHandlingStrategy() {
 
    }
 
    @Override
-   public void handle(final HttpServletResponse response, final StubRequest assertionStubRequest) throws IOException {
+   public void handle(final HttpServletResponse response, final StubRequest assertionStubRequest, final StubResponse foundStubResponse) throws IOException {
       HandlerUtils.setResponseMainHeaders(response);
       final String authorizationHeader = assertionStubRequest.getHeaders().get(StubRequest.AUTH_HEADER);
       String error;
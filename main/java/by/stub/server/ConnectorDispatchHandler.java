@@ -0,0 +1,58 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.server;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerCollection;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dispatches every request straight to the handler chain of the connector which accepted it, so that
+ * a request is never evaluated by the handlers of the other connectors.
+ */
+final class ConnectorDispatchHandler extends HandlerCollection {
+
+   private final Map<String, Handler> handlersByConnectorName = new HashMap<String, Handler>();
+
+   ConnectorDispatchHandler() {
+
+   }
+
+   void addConnectorHandler(final String connectorName, final Handler handler) {
+      handlersByConnectorName.put(connectorName, handler);
+      addHandler(handler);
+   }
+
+   @Override
+   public void handle(final String target, final Request baseRequest, final HttpServletRequest request, final HttpServletResponse response) throws IOException, ServletException {
+      final Handler handler = handlersByConnectorName.get(baseRequest.getConnection().getConnector().getName());
+
+      if (handler != null) {
+         handler.handle(target, baseRequest, request, response);
+      }
+   }
+}
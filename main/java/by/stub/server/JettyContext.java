@@ -19,6 +19,9 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 
 package by.stub.server;
 
+import org.eclipse.jetty.server.AbstractConnector;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
 /**
  * @author Alexander Zagniotov
  * @since 10/26/12, 8:54 AM
@@ -29,12 +32,21 @@ public final class JettyContext {
    private final int stubsSslPort;
    private final int stubsPort;
    private final int adminPort;
+   private final QueuedThreadPool threadPool;
+   private final AbstractConnector stubsConnector;
+   private final AbstractConnector stubsSslConnector;
+   private final AbstractConnector adminConnector;
 
-   public JettyContext(final String host, final int stubsPort, final int stubsSslPort, final int adminPort) {
+   public JettyContext(final String host, final QueuedThreadPool threadPool, final AbstractConnector stubsConnector,
+                       final AbstractConnector stubsSslConnector, final AbstractConnector adminConnector) {
       this.host = host;
-      this.stubsSslPort = stubsSslPort;
-      this.stubsPort = stubsPort;
-      this.adminPort = adminPort;
+      this.stubsSslPort = stubsSslConnector.getPort();
+      this.stubsPort = stubsConnector.getPort();
+      this.adminPort = adminConnector.getPort();
+      this.threadPool = threadPool;
+      this.stubsConnector = stubsConnector;
+      this.stubsSslConnector = stubsSslConnector;
+      this.adminConnector = adminConnector;
    }
 
    public int getStubsSslPort() {
@@ -52,4 +64,20 @@ public final class JettyContext {
    public String getHost() {
       return host;
    }
+
+   public QueuedThreadPool getThreadPool() {
+      return threadPool;
+   }
+
+   public AbstractConnector getStubsConnector() {
+      return stubsConnector;
+   }
+
+   public AbstractConnector getStubsSslConnector() {
+      return stubsSslConnector;
+   }
+
+   public AbstractConnector getAdminConnector() {
+      return adminConnector;
+   }
 }
@@ -24,10 +24,12 @@ import by.stub.cli.CommandLineInterpreter;
 import by.stub.database.DataStore;
 import by.stub.exception.Stubby4JException;
 import by.stub.handlers.PingHandler;
+import by.stub.handlers.StaticAssetHandler;
 import by.stub.handlers.StubsHandler;
 import by.stub.handlers.StubsRegistrationHandler;
 import by.stub.utils.StringUtils;
 import by.stub.yaml.YamlParser;
+import org.eclipse.jetty.server.AbstractConnector;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Server;
@@ -35,9 +37,12 @@ import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.server.handler.ResourceHandler;
 import org.eclipse.jetty.server.nio.SelectChannelConnector;
-import org.eclipse.jetty.server.ssl.SslSocketConnector;
+import org.eclipse.jetty.server.ssl.SslSelectChannelConnector;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.LifeCycle;
 import org.eclipse.jetty.util.resource.Resource;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 
 import java.io.IOException;
 import java.net.URL;
@@ -57,27 +62,31 @@ public final class JettyFactory {
    public static final int DEFAULT_STUBS_PORT = 8882;
    public static final int DEFAULT_SSL_PORT = 7443;
    public static final String DEFAULT_HOST = "localhost";
+   public static final int DEFAULT_IDLE_TIME = 45000;
    static final String ADMIN_CONNECTOR_NAME = "stubbyAdminConnector";
    static final String STUBS_CONNECTOR_NAME = "stubsClientConnector";
    static final String SSL_CONNECTOR_NAME = "stubsSslConnector";
    private final Map<String, String> commandLineArgs;
    private final YamlParser yamlParser;
    private final DataStore dataStore;
-   private String currentHost;
-   private int currentStubsPort;
-   private int currentAdminPort;
-   private int currentStubsSslPort;
+   private final JettySettings jettySettings;
+   private QueuedThreadPool currentThreadPool;
+   private SelectChannelConnector currentAdminConnector;
+   private SelectChannelConnector currentStubsConnector;
+   private SslSelectChannelConnector currentStubsSslConnector;
 
    public JettyFactory(final Map<String, String> commandLineArgs, final DataStore dataStore, final YamlParser yamlParser) {
       this.commandLineArgs = commandLineArgs;
       this.dataStore = dataStore;
       this.yamlParser = yamlParser;
+      this.jettySettings = new JettySettings(commandLineArgs, yamlParser.getServerSettings());
    }
 
    public Server construct() throws IOException {
 
       synchronized (JettyFactory.class) {
          final Server server = new Server();
+         server.setThreadPool(buildThreadPool());
          server.setConnectors(buildConnectors());
          server.setHandler(constructHandlers());
 
@@ -85,20 +94,19 @@ public final class JettyFactory {
       }
    }
 
-   private HandlerList constructHandlers() {
+   private Handler constructHandlers() {
 
-      final JettyContext jettyContext = new JettyContext(currentHost, currentStubsPort, currentStubsSslPort, currentAdminPort);
-      final HandlerList handlers = new HandlerList();
-      handlers.setHandlers(new Handler[]
-            {
-                  constructHandler(STUBS_CONNECTOR_NAME, "/", staticResourceHandler("ui/html/templates/", "default404.html")),
-                  constructHandler(STUBS_CONNECTOR_NAME, "/", staticResourceHandler("ui/images/", "favicon.ico")),
-                  constructHandler(STUBS_CONNECTOR_NAME, "/", new StubsHandler(dataStore)),
+      final JettyContext jettyContext = new JettyContext(currentAdminConnector.getHost(), currentThreadPool,
+            currentStubsConnector, currentStubsSslConnector, currentAdminConnector);
+      final ConnectorDispatchHandler handlers = new ConnectorDispatchHandler();
 
-                  constructHandler(SSL_CONNECTOR_NAME, "/", staticResourceHandler("ui/html/templates/", "default404.html")),
-                  constructHandler(SSL_CONNECTOR_NAME, "/", staticResourceHandler("ui/images/", "favicon.ico")),
-                  constructHandler(SSL_CONNECTOR_NAME, "/", new StubsHandler(dataStore)),
+      // Stub requests skip context and classpath resource resolution, only the exact static asset paths are served apart
+      handlers.addConnectorHandler(STUBS_CONNECTOR_NAME, constructStubsHandler());
+      handlers.addConnectorHandler(SSL_CONNECTOR_NAME, constructStubsHandler());
 
+      final HandlerList adminHandlers = new HandlerList();
+      adminHandlers.setHandlers(new Handler[]
+            {
                   constructHandler(ADMIN_CONNECTOR_NAME, "/stubdata/new", new StubsRegistrationHandler(dataStore, yamlParser)),
                   constructHandler(ADMIN_CONNECTOR_NAME, "/ping", new PingHandler(jettyContext, dataStore, yamlParser)),
                   constructHandler(ADMIN_CONNECTOR_NAME, "/", staticResourceHandler("ui/html/templates/", "admin-index.html")),
@@ -106,10 +114,20 @@ public final class JettyFactory {
                   constructHandler(ADMIN_CONNECTOR_NAME, "/", staticResourceHandler("ui/images/", "favicon.ico"))
             }
       );
+      handlers.addConnectorHandler(ADMIN_CONNECTOR_NAME, adminHandlers);
 
       return handlers;
    }
 
+   private Handler constructStubsHandler() {
+      final StaticAssetHandler staticAssetHandler = new StaticAssetHandler()
+            .withAsset("/", "/ui/html/templates/default404.html")
+            .withAsset("/favicon.ico", "/ui/images/favicon.ico");
+      staticAssetHandler.setHandler(new StubsHandler(dataStore));
+
+      return staticAssetHandler;
+   }
+
    private ResourceHandler staticResourceHandler(final String classPathResource, final String... staticResources) {
 
       final ResourceHandler resourceHandler = new ResourceHandler();
@@ -132,6 +150,28 @@ public final class JettyFactory {
       return contextHandler;
    }
 
+   private QueuedThreadPool buildThreadPool() {
+
+      final QueuedThreadPool threadPool = new QueuedThreadPool();
+      threadPool.setMinThreads(jettySettings.getServerSetting(CommandLineInterpreter.OPTION_MIN_THREADS, threadPool.getMinThreads()));
+      threadPool.setMaxThreads(jettySettings.getServerSetting(CommandLineInterpreter.OPTION_MAX_THREADS, threadPool.getMaxThreads()));
+
+      currentThreadPool = threadPool;
+
+      return threadPool;
+   }
+
+   private void configureConnector(final AbstractConnector connector, final String connectorKey) {
+
+      connector.setAcceptors(jettySettings.getConnectorSetting(connectorKey, CommandLineInterpreter.OPTION_ACCEPTORS, connector.getAcceptors()));
+      connector.setAcceptQueueSize(jettySettings.getConnectorSetting(connectorKey, CommandLineInterpreter.OPTION_ACCEPT_QUEUE, connector.getAcceptQueueSize()));
+      connector.setMaxIdleTime(jettySettings.getConnectorSetting(connectorKey, CommandLineInterpreter.OPTION_IDLE_TIME, connector.getMaxIdleTime()));
+      connector.setRequestHeaderSize(jettySettings.getConnectorSetting(connectorKey, CommandLineInterpreter.OPTION_HEADER_SIZE, connector.getRequestHeaderSize()));
+      connector.setResponseHeaderSize(jettySettings.getConnectorSetting(connectorKey, CommandLineInterpreter.OPTION_HEADER_SIZE, connector.getResponseHeaderSize()));
+      connector.setRequestBufferSize(jettySettings.getConnectorSetting(connectorKey, CommandLineInterpreter.OPTION_BUFFER_SIZE, connector.getRequestBufferSize()));
+      connector.setResponseBufferSize(jettySettings.getConnectorSetting(connectorKey, CommandLineInterpreter.OPTION_BUFFER_SIZE, connector.getResponseBufferSize()));
+   }
+
    private Connector[] buildConnectors() throws IOException {
 
       final List<Connector> connectors = new ArrayList<Connector>();
@@ -149,6 +189,7 @@ public final class JettyFactory {
 
       adminChannel.setName(ADMIN_CONNECTOR_NAME);
       adminChannel.setHost(DEFAULT_HOST);
+      configureConnector(adminChannel, CommandLineInterpreter.OPTION_ADMINPORT);
 
       if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_ADDRESS)) {
          adminChannel.setHost(commandLineArgs.get(CommandLineInterpreter.OPTION_ADDRESS));
@@ -158,8 +199,7 @@ public final class JettyFactory {
             adminChannel.getHost(), adminChannel.getPort());
       ANSITerminal.status(status);
 
-      currentHost = adminChannel.getHost();
-      currentAdminPort = adminChannel.getPort();
+      currentAdminConnector = adminChannel;
 
       return adminChannel;
    }
@@ -168,11 +208,11 @@ public final class JettyFactory {
 
       final SelectChannelConnector stubsChannel = new SelectChannelConnector();
       stubsChannel.setPort(getStubsPort(commandLineArgs));
-      final int idleTimeInMilliseconds = 45000;
-      stubsChannel.setMaxIdleTime(idleTimeInMilliseconds);
+      stubsChannel.setMaxIdleTime(DEFAULT_IDLE_TIME);
       stubsChannel.setRequestHeaderSize(8192);
       stubsChannel.setName(STUBS_CONNECTOR_NAME);
       stubsChannel.setHost(DEFAULT_HOST);
+      configureConnector(stubsChannel, CommandLineInterpreter.OPTION_CLIENTPORT);
 
       if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_ADDRESS)) {
          stubsChannel.setHost(commandLineArgs.get(CommandLineInterpreter.OPTION_ADDRESS));
@@ -182,12 +222,12 @@ public final class JettyFactory {
             stubsChannel.getHost(), stubsChannel.getPort());
       ANSITerminal.status(status);
 
-      currentStubsPort = stubsChannel.getPort();
+      currentStubsConnector = stubsChannel;
 
       return stubsChannel;
    }
 
-   private SslSocketConnector buildStubsSslConnector() throws IOException {
+   private SslSelectChannelConnector buildStubsSslConnector() throws IOException {
 
       String keystorePath = null;
       String password = "password";
@@ -198,7 +238,14 @@ public final class JettyFactory {
       }
 
       final SslContextFactory sslContextFactory = constructSslContextFactory(password, keystorePath);
-      final SslSocketConnector sslConnector = new SslSocketConnector(sslContextFactory);
+      sslContextFactory.setSslSessionCacheSize(jettySettings.getConnectorSetting(CommandLineInterpreter.OPTION_SSLPORT,
+         JettySettings.SESSION_CACHE, sslContextFactory.getSslSessionCacheSize()));
+
+      // Non-blocking connector does not hold a thread for every open connection, unlike SslSocketConnector.
+      // Idle time is left at Jetty default of 200000 ms, which SslSocketConnector was using as well
+      final SslSelectChannelConnector sslConnector = new SslSelectChannelConnector(sslContextFactory);
+      // --sslacceptors, --sslidletime and --sslsessioncache are resolved as settings of the ssl connector
+      configureConnector(sslConnector, CommandLineInterpreter.OPTION_SSLPORT);
       sslConnector.setPort(getStubsSslPort(commandLineArgs));
       sslConnector.setName(SSL_CONNECTOR_NAME);
       sslConnector.setHost(DEFAULT_HOST);
@@ -211,7 +258,7 @@ public final class JettyFactory {
             sslConnector.getHost(), sslConnector.getPort(), (keystorePath == null ? "internal" : "provided " + keystorePath));
       ANSITerminal.status(status);
 
-      currentStubsSslPort = sslConnector.getPort();
+      currentStubsSslConnector = sslConnector;
 
       return sslConnector;
    }
@@ -220,6 +267,15 @@ public final class JettyFactory {
 
       final SslContextFactory sslFactory = new SslContextFactory();
       sslFactory.setKeyStorePassword(password);
+      sslFactory.addLifeCycleListener(new AbstractLifeCycle.AbstractLifeCycleListener() {
+         // Jetty keeps the session cache size without applying it to the SSL context, which exists once started
+         @Override
+         public void lifeCycleStarted(final LifeCycle event) {
+            if (sslFactory.getSslSessionCacheSize() > 0) {
+               sslFactory.getSslContext().getServerSessionContext().setSessionCacheSize(sslFactory.getSslSessionCacheSize());
+            }
+         }
+      });
       sslFactory.setKeyManagerPassword(password);
 
       relaxSslTrustManager();
@@ -21,6 +21,7 @@ package by.stub.server;
 
 
 import by.stub.cli.ANSITerminal;
+import by.stub.utils.DateTicker;
 import org.eclipse.jetty.server.Server;
 
 public final class JettyManager {
@@ -37,6 +38,7 @@ public final class JettyManager {
             return;
          }
 
+         DateTicker.start();
          server.start();
 
          ANSITerminal.info("\nQuit: ctrl-c\n");
@@ -53,6 +55,8 @@ public final class JettyManager {
          server.setGracefulShutdown(timeoutMilliseconds);
          server.setStopAtShutdown(true);
          server.stop();
+         DateTicker.stop();
+         ANSITerminal.stopQueueing();
       }
    }
 
@@ -43,10 +43,10 @@ public class JettyManagerFactory {
 
          Log.setLog(new EmptyLogger());
 
-         final YamlParser yamlParser = new YamlParser(yamlConfigFilename);
+         final YamlParser yamlParser = new YamlParser(yamlConfigFilename, getFileCacheBytes(commandLineArgs));
          final List<StubHttpLifecycle> httpLifecycles = yamlParser.parseAndLoad();
          System.out.println();
-         final DataStore dataStore = new DataStore(httpLifecycles);
+         final DataStore dataStore = new DataStore(httpLifecycles, getMatchCacheSize(commandLineArgs));
          final JettyFactory jettyFactory = new JettyFactory(commandLineArgs, dataStore, yamlParser);
          final Server server = jettyFactory.construct();
 
@@ -58,6 +58,20 @@ public class JettyManagerFactory {
       }
    }
 
+   private int getMatchCacheSize(final Map<String, String> commandLineArgs) {
+      if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_MATCH_CACHE)) {
+         return Integer.parseInt(commandLineArgs.get(CommandLineInterpreter.OPTION_MATCH_CACHE));
+      }
+      return 0;
+   }
+
+   private long getFileCacheBytes(final Map<String, String> commandLineArgs) {
+      if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_FILE_CACHE)) {
+         return Long.parseLong(commandLineArgs.get(CommandLineInterpreter.OPTION_FILE_CACHE));
+      }
+      return 0;
+   }
+
    public void watchDataStore(final YamlParser yamlParser, final DataStore dataStore) {
       final ConfigurationScanner configurationScanner = new ConfigurationScanner(yamlParser, dataStore);
       new Thread(configurationScanner, ConfigurationScanner.class.getCanonicalName()).start();
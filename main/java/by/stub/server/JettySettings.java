@@ -0,0 +1,97 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.server;
+
+import java.util.Map;
+
+/**
+ * Thread pool and connector settings, given as command line args or in the server section of YAML configuration, ie:
+ * <pre>
+ * -  server:
+ *       maxthreads: 500
+ *       idletime: 30000
+ *       ssl:
+ *          acceptors: 4
+ *          sessioncache: 1000
+ * </pre>
+ * Command line args win over YAML. Settings of a single connector, keyed by the same name as its port option,
+ * win over the settings common to all connectors. On the command line, settings of a single connector are given
+ * with options prefixed by the connector name, ie: --sslacceptors
+ */
+final class JettySettings {
+
+   static final String SESSION_CACHE = "sessioncache";
+
+   private final Map<String, String> commandLineArgs;
+   private final Map<String, Object> yamlSettings;
+
+   JettySettings(final Map<String, String> commandLineArgs, final Map<String, Object> yamlSettings) {
+      this.commandLineArgs = commandLineArgs;
+      this.yamlSettings = yamlSettings;
+   }
+
+   /**
+    * @param option       name of the setting, the same as of its command line option
+    * @param defaultValue value used when the setting is not given
+    * @return value of setting common to the whole server
+    */
+   int getServerSetting(final String option, final int defaultValue) {
+      if (commandLineArgs.containsKey(option)) {
+         return Integer.parseInt(commandLineArgs.get(option));
+      }
+
+      return parseYamlSetting(yamlSettings, option, defaultValue);
+   }
+
+   /**
+    * @param connectorKey name of the port option of the connector, ie: ssl
+    * @param option       name of the setting, the same as of its command line option
+    * @param defaultValue value used when the setting is not given
+    * @return value of setting of the given connector
+    */
+   @SuppressWarnings("unchecked")
+   int getConnectorSetting(final String connectorKey, final String option, final int defaultValue) {
+      final String connectorOption = connectorKey + option;
+      if (commandLineArgs.containsKey(connectorOption)) {
+         return Integer.parseInt(commandLineArgs.get(connectorOption));
+      }
+
+      if (commandLineArgs.containsKey(option)) {
+         return Integer.parseInt(commandLineArgs.get(option));
+      }
+
+      final int commonValue = parseYamlSetting(yamlSettings, option, defaultValue);
+      final Object connectorSettings = yamlSettings.get(connectorKey);
+      if (!(connectorSettings instanceof Map)) {
+         return commonValue;
+      }
+
+      return parseYamlSetting((Map<String, Object>) connectorSettings, option, commonValue);
+   }
+
+   private static int parseYamlSetting(final Map<String, Object> settings, final String option, final int defaultValue) {
+      final Object value = settings.get(option);
+      if (value == null || value instanceof Map) {
+         return defaultValue;
+      }
+
+      return Integer.parseInt(value.toString().trim());
+   }
+}
@@ -0,0 +1,118 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of response bodies and negotiation of their content encoding, as specified in RFC 2616, sections 3.5 and 14.3
+ */
+public final class CompressionUtils {
+
+   public static final String GZIP = "gzip";
+   public static final String DEFLATE = "deflate";
+
+   private CompressionUtils() {
+
+   }
+
+   /**
+    * Selects content encoding of the response body based on the value of request Accept-Encoding header.
+    * Gzip is preferred over deflate if both are equally acceptable
+    *
+    * @param acceptEncoding value of Accept-Encoding header, may be null
+    * @return gzip, deflate or null, if the body should be sent as is
+    */
+   public static String negotiateContentEncoding(final String acceptEncoding) {
+      if (!StringUtils.isSet(acceptEncoding)) {
+         return null;
+      }
+
+      float gzipQuality = -1;
+      float deflateQuality = -1;
+      float anyQuality = -1;
+
+      for (final String codingWithQuality : acceptEncoding.split(",")) {
+         final int qualityLocation = codingWithQuality.indexOf(';');
+         final String coding = StringUtils.toLower((qualityLocation < 0 ? codingWithQuality : codingWithQuality.substring(0, qualityLocation)).trim());
+         if (coding == null) {
+            continue;
+         }
+
+         final float quality = (qualityLocation < 0 ? 1 : parseQuality(codingWithQuality.substring(qualityLocation + 1)));
+         if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+            gzipQuality = Math.max(gzipQuality, quality);
+         } else if (coding.equals(DEFLATE)) {
+            deflateQuality = Math.max(deflateQuality, quality);
+         } else if (coding.equals("*")) {
+            anyQuality = Math.max(anyQuality, quality);
+         }
+      }
+
+      gzipQuality = (gzipQuality < 0 ? anyQuality : gzipQuality);
+      deflateQuality = (deflateQuality < 0 ? anyQuality : deflateQuality);
+
+      if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+         return GZIP;
+      }
+
+      return (deflateQuality > 0 ? DEFLATE : null);
+   }
+
+   /**
+    * @param content         content to compress
+    * @param offset          start of the content in the given array
+    * @param length          length of the content
+    * @param contentEncoding gzip or deflate
+    * @return compressed content
+    */
+   public static byte[] compress(final byte[] content, final int offset, final int length, final String contentEncoding) {
+      final ByteArrayOutputStream compressedContent = new ByteArrayOutputStream(Math.max(32, length / 4));
+
+      try {
+         final OutputStream compressingStream = (GZIP.equals(contentEncoding) ?
+            new GZIPOutputStream(compressedContent) : new DeflaterOutputStream(compressedContent));
+         compressingStream.write(content, offset, length);
+         compressingStream.close();
+      } catch (final IOException ex) {
+         // Never thrown when writing to memory
+         throw new IllegalStateException(ex);
+      }
+
+      return compressedContent.toByteArray();
+   }
+
+   private static float parseQuality(final String parameter) {
+      final String trimmedParameter = parameter.trim();
+      if (!trimmedParameter.startsWith("q=")) {
+         return 1;
+      }
+
+      try {
+         return Float.parseFloat(trimmedParameter.substring(2).trim());
+      } catch (final NumberFormatException ex) {
+         return 0;
+      }
+   }
+}
@@ -25,10 +25,11 @@ import org.eclipse.jetty.http.HttpStatus;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.Calendar;
-import java.util.Locale;
 
 /**
+ * Request log lines are queued to the console, so that request threads neither wait for the console nor contend
+ * with each other on it. Nothing is built when the console is muted.
+ *
  * @author Alexander Zagniotov
  * @since 10/26/12, 1:00 PM
  */
@@ -39,60 +40,61 @@ public final class ConsoleUtils {
    }
 
    public static void logIncomingRequestError(final HttpServletRequest request, final String source, final String error) {
+      if (ANSITerminal.isMute()) {
+         return;
+      }
+
+      final StringBuilder logMessage = startLogMessage("] -> ", request.getMethod(), source, request.getRequestURI());
+      logMessage.append(": ").append(error);
 
-      final String logMessage = String.format("[%s] -> %s [%s]%s: %s",
-            getTime(),
-            request.getMethod(),
-            source,
-            request.getRequestURI(),
-            error
-      );
-      ANSITerminal.error(logMessage);
+      ANSITerminal.queueError(logMessage.toString());
    }
 
    public static void logIncomingRequest(final HttpServletRequest request, final String source) {
+      if (ANSITerminal.isMute()) {
+         return;
+      }
+
+      final StringBuilder logMessage = startLogMessage("] -> ", request.getMethod(), source, request.getRequestURI());
 
-      final String logMessage = String.format("[%s] -> %s [%s]%s",
-            getTime(),
-            request.getMethod(),
-            source,
-            request.getRequestURI()
-      );
-      ANSITerminal.incoming(logMessage);
+      ANSITerminal.queueIncoming(logMessage.toString());
    }
 
    public static void logOutgoingResponse(final HttpServletRequest request, final HttpServletResponse response, final String source) {
+      if (ANSITerminal.isMute()) {
+         return;
+      }
+
       final HttpServletResponseWithGetStatus wrapper = new HttpServletResponseWithGetStatus(response);
 
       final int status = wrapper.getStatus();
 
-      final String logMessage = String.format("[%s] <- %s [%s]%s %s",
-            getTime(),
-            status,
-            source,
-            request.getRequestURI(),
-            HttpStatus.getMessage(status)
-      );
+      final StringBuilder logMessage = startLogMessage("] <- ", String.valueOf(status), source, request.getRequestURI());
+      logMessage.append(' ').append(HttpStatus.getMessage(status));
 
       if (status >= HttpStatus.BAD_REQUEST_400) {
-         ANSITerminal.error(logMessage);
+         ANSITerminal.queueError(logMessage.toString());
       } else if (status >= HttpStatus.MULTIPLE_CHOICES_300) {
-         ANSITerminal.warn(logMessage);
+         ANSITerminal.queueWarn(logMessage.toString());
       } else if (status >= HttpStatus.OK_200) {
-         ANSITerminal.ok(logMessage);
+         ANSITerminal.queueOk(logMessage.toString());
       } else if (status >= HttpStatus.CONTINUE_100) {
-         ANSITerminal.info(logMessage);
+         ANSITerminal.queueInfo(logMessage.toString());
       } else {
-         ANSITerminal.log(logMessage);
+         ANSITerminal.queueLog(logMessage.toString());
       }
    }
 
+   // Builds "[time] -> method [source]uri" as String.format did before, without parsing a format on every request
+   private static StringBuilder startLogMessage(final String direction, final String methodOrStatus, final String source, final String uri) {
+      return new StringBuilder(64)
+            .append('[').append(getTime()).append(direction)
+            .append(methodOrStatus)
+            .append(" [").append(source).append(']')
+            .append(uri);
+   }
+
    private static String getTime() {
-      final Calendar now = Calendar.getInstance(Locale.US);
-      return String.format("%02d:%02d:%02d",
-            now.get(Calendar.HOUR_OF_DAY),
-            now.get(Calendar.MINUTE),
-            now.get(Calendar.SECOND)
-      );
+      return DateTicker.getConsoleTime();
    }
 }
@@ -0,0 +1,129 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.utils;
+
+import by.stub.cli.ANSITerminal;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Current time, formatted for the Date response header and for console log lines. While the server is running,
+ * both are formatted once a second by a daemon ticker thread, at the start of every second, instead of on every
+ * request and every log line. While the ticker is stopped, they are formatted when requested.
+ */
+public final class DateTicker {
+
+   private static final long TICK_MILLIS = 1000;
+
+   private static volatile String headerDate;
+   private static volatile String consoleTime;
+   private static volatile ScheduledExecutorService ticker;
+
+   private DateTicker() {
+
+   }
+
+   /**
+    * Starts formatting the current time once a second, unless already started
+    */
+   public static synchronized void start() {
+      if (ticker != null) {
+         return;
+      }
+
+      tick();
+
+      final ScheduledExecutorService newTicker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+         @Override
+         public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, DateTicker.class.getCanonicalName());
+            thread.setDaemon(true);
+            return thread;
+         }
+      });
+
+      // Scheduled task which throws is never run again, so a failed tick must not leave the date frozen
+      newTicker.scheduleAtFixedRate(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               tick();
+            } catch (final Exception ex) {
+               ANSITerminal.error(String.format("Could not format current date: %s", ex.toString()));
+            }
+         }
+      }, TICK_MILLIS - System.currentTimeMillis() % TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+
+      ticker = newTicker;
+   }
+
+   /**
+    * Stops the ticker thread, the current time is then formatted when requested
+    */
+   public static synchronized void stop() {
+      if (ticker == null) {
+         return;
+      }
+
+      ticker.shutdownNow();
+      ticker = null;
+   }
+
+   private static void tick() {
+      final Date now = new Date();
+      final Calendar calendar = Calendar.getInstance(Locale.US);
+      calendar.setTime(now);
+
+      headerDate = now.toString();
+      consoleTime = String.format("%02d:%02d:%02d",
+            calendar.get(Calendar.HOUR_OF_DAY),
+            calendar.get(Calendar.MINUTE),
+            calendar.get(Calendar.SECOND)
+      );
+   }
+
+   /**
+    * @return current date as sent in the Date response header
+    */
+   public static String getHeaderDate() {
+      if (ticker == null) {
+         tick();
+      }
+
+      return headerDate;
+   }
+
+   /**
+    * @return current time as shown in console log lines, ie: 13:05:59
+    */
+   public static String getConsoleTime() {
+      if (ticker == null) {
+         tick();
+      }
+
+      return consoleTime;
+   }
+}
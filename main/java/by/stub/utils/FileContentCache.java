@@ -0,0 +1,143 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.utils;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least recently used cache of file content, bounded by the total number of cached bytes. Content is loaded
+ * through {@link FileUtils#fileToBytes(String)} when first requested, and the least recently used files are evicted
+ * once the memory budget is exceeded. Files bigger than the whole budget are loaded on every request, without being cached.
+ * <p/>
+ * Cached content is shared by all callers and must not be modified.
+ */
+public final class FileContentCache {
+
+   private final long capacityBytes;
+   private final Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+   private final AtomicLong hits;
+   private final AtomicLong misses;
+   private final AtomicLong evictions;
+   private long sizeBytes;
+
+   public FileContentCache(final long capacityBytes) {
+      this(capacityBytes, new AtomicLong(), new AtomicLong(), new AtomicLong());
+   }
+
+   private FileContentCache(final long capacityBytes, final AtomicLong hits, final AtomicLong misses, final AtomicLong evictions) {
+      this.capacityBytes = capacityBytes;
+      this.hits = hits;
+      this.misses = misses;
+      this.evictions = evictions;
+   }
+
+   /**
+    * @return empty cache with the same memory budget, e.g.: for reloaded stubs, which may refer to changed files.
+    * Counters are shared with this cache
+    */
+   public FileContentCache emptyCopy() {
+      return new FileContentCache(capacityBytes, hits, misses, evictions);
+   }
+
+   /**
+    * @param filePath path relative to the data directory
+    * @return cached file content, or content loaded from disk, if the file was not cached
+    * @throws IOException if the file could not be loaded
+    */
+   public byte[] get(final String filePath) throws IOException {
+      synchronized (entries) {
+         final byte[] cachedContent = entries.get(filePath);
+         if (cachedContent != null) {
+            hits.incrementAndGet();
+            return cachedContent;
+         }
+      }
+
+      misses.incrementAndGet();
+
+      // File is loaded without holding the lock, so concurrent requests for other files are not blocked
+      final byte[] loadedContent = FileUtils.fileToBytes(filePath);
+      if (loadedContent.length > capacityBytes) {
+         return loadedContent;
+      }
+
+      synchronized (entries) {
+         final byte[] previousContent = entries.put(filePath, loadedContent);
+         if (previousContent != null) {
+            sizeBytes -= previousContent.length;
+         }
+         sizeBytes += loadedContent.length;
+         evictLeastRecentlyUsed();
+      }
+
+      return loadedContent;
+   }
+
+   /**
+    * Removes all cached content, e.g.: when stubs are reloaded and files may have changed. Counters are kept
+    */
+   public void clear() {
+      synchronized (entries) {
+         entries.clear();
+         sizeBytes = 0;
+      }
+   }
+
+   private void evictLeastRecentlyUsed() {
+      final Iterator<byte[]> leastRecentlyUsed = entries.values().iterator();
+      while (sizeBytes > capacityBytes && leastRecentlyUsed.hasNext()) {
+         sizeBytes -= leastRecentlyUsed.next().length;
+         leastRecentlyUsed.remove();
+         evictions.incrementAndGet();
+      }
+   }
+
+   public long getCapacityBytes() {
+      return capacityBytes;
+   }
+
+   public long getSizeBytes() {
+      synchronized (entries) {
+         return sizeBytes;
+      }
+   }
+
+   public int getEntries() {
+      synchronized (entries) {
+         return entries.size();
+      }
+   }
+
+   public long getHits() {
+      return hits.get();
+   }
+
+   public long getMisses() {
+      return misses.get();
+   }
+
+   public long getEvictions() {
+      return evictions.get();
+   }
+}
@@ -28,6 +28,8 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -89,6 +91,67 @@ public final class FileUtils {
       return IOUtils.toByteArray(new FileInputStream(contentFile));
    }
 
+   /**
+    * Maps binary file into memory read-only, so that its content does not occupy the heap.
+    * The file stays mapped until the returned buffer is garbage collected
+    *
+    * @param filePath path relative to the data directory
+    * @return buffer backed by the file content
+    * @throws IOException if the file could not be mapped
+    */
+   public static ByteBuffer binaryFileToMappedBuffer(final String filePath) throws IOException {
+      final File contentFile = new File(getDataDirectory(), filePath);
+
+      if (!contentFile.isFile()) {
+         throw new IOException(String.format("Could not load file from path: %s", filePath));
+      }
+
+      final FileInputStream fileInputStream = new FileInputStream(contentFile);
+      try {
+         final FileChannel fileChannel = fileInputStream.getChannel();
+
+         return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+      } finally {
+         fileInputStream.close();
+      }
+   }
+
+   /**
+    * @param filePath path relative to the data directory
+    * @return canonical path, size and modification time of the file, equal for paths to the same unchanged file
+    * @throws IOException if the canonical path could not be resolved
+    */
+   public static String fileIdentity(final String filePath) throws IOException {
+      final File contentFile = new File(getDataDirectory(), filePath);
+
+      return String.format("%s:%s:%s", contentFile.getCanonicalPath(), contentFile.length(), contentFile.lastModified());
+   }
+
+   public static long fileSize(final String filePath) {
+      return new File(getDataDirectory(), filePath).length();
+   }
+
+   public static boolean isFile(final String filePath) {
+      return new File(getDataDirectory(), filePath).isFile();
+   }
+
+   /**
+    * Loads file content, which is converted to UTF-8 with system line separators if the file is of ASCII type
+    *
+    * @param filePath path relative to the data directory
+    * @return file content
+    * @throws IOException if the file could not be loaded
+    */
+   public static byte[] fileToBytes(final String filePath) throws IOException {
+      final String extension = filePath.substring(filePath.lastIndexOf("."));
+
+      if (ASCII_TYPES.contains(extension)) {
+         return asciiFileToUtf8Bytes(filePath);
+      }
+
+      return binaryFileToBytes(filePath);
+   }
+
    public static String asciiFileToString(final String filePath) throws IOException {
       final File contentFile = new File(getDataDirectory(), filePath);
 
@@ -117,16 +180,48 @@ public final class FileUtils {
       return new File(yamlConfigFilename).getParent();
    }
 
+   /**
+    * Replaces Windows, Unix and pre OS X Mac line separators with the line separator of the current system.
+    * Content is scanned once and returned as is when it already uses system line separators only
+    *
+    * @param loadedContent content to normalize
+    * @return normalized content or empty string, if content was not set
+    */
    public static String enforceSystemLineSeparator(final String loadedContent) {
       if (!StringUtils.isSet(loadedContent)) {
          return "";
       }
 
-      return loadedContent
-         .replace(LINE_SEPARATOR_WINDOWS, LINE_SEPARATOR_TOKEN)
-         .replace(LINE_SEPARATOR_MAC_OS_PRE_X, LINE_SEPARATOR_TOKEN)
-         .replace(LINE_SEPARATOR_UNIX, LINE_SEPARATOR_TOKEN)
-         .replace(LINE_SEPARATOR_TOKEN, LINE_SEPARATOR);
+      final int length = loadedContent.length();
+      StringBuilder builder = null;
+      int copiedUpTo = 0;
+
+      for (int idx = 0; idx < length; idx++) {
+         final char current = loadedContent.charAt(idx);
+         if (current != '\r' && current != '\n') {
+            continue;
+         }
+
+         final boolean isWindowsSeparator = current == '\r' && idx + 1 < length && loadedContent.charAt(idx + 1) == '\n';
+         final int separatorLength = isWindowsSeparator ? 2 : 1;
+         final boolean isSystemSeparator = LINE_SEPARATOR.length() == separatorLength && loadedContent.startsWith(LINE_SEPARATOR, idx);
+
+         if (!isSystemSeparator) {
+            if (builder == null) {
+               builder = new StringBuilder(length);
+            }
+            builder.append(loadedContent, copiedUpTo, idx).append(LINE_SEPARATOR);
+            copiedUpTo = idx + separatorLength;
+         }
+
+         idx += separatorLength - 1;
+      }
+
+      if (builder == null) {
+         return loadedContent;
+      }
+
+      return builder.append(loadedContent, copiedUpTo, length).toString();
    }
 
    private static final class StringBuilderWriter extends Writer implements Serializable {
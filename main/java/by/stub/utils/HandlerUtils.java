@@ -19,15 +19,14 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 
 package by.stub.utils;
 
+import by.stub.cli.CommandLineInterpreter;
+import by.stub.exception.RequestBodyTooLargeException;
 import by.stub.exception.Stubby4JException;
-import org.eclipse.jetty.http.HttpHeaders;
-import org.eclipse.jetty.http.MimeTypes;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -38,6 +37,14 @@ import java.util.Set;
 @SuppressWarnings("serial")
 public final class HandlerUtils {
 
+   private static final Set<String> HTTP_METHODS_CONTAINING_BODY = new HashSet<String>() {{
+      add("post");
+      add("put");
+   }};
+
+   // Server header value does not change while stubby runs, so it is constructed only once
+   public static final String HEADER_SERVER_NAME = constructHeaderServerName();
+
    private HandlerUtils() {
 
    }
@@ -66,12 +73,7 @@ public final class HandlerUtils {
    }
 
    public static void setResponseMainHeaders(final HttpServletResponse response) {
-      response.setHeader(HttpHeaders.SERVER, HandlerUtils.constructHeaderServerName());
-      response.setHeader(HttpHeaders.DATE, new Date().toString());
-      response.setHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.TEXT_HTML_UTF_8);
-      response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate"); // HTTP 1.1.
-      response.setHeader(HttpHeaders.PRAGMA, "no-cache"); // HTTP 1.0.
-      response.setDateHeader(HttpHeaders.EXPIRES, 0);
+      ResponseHeaders.MAIN.writeTo(response);
    }
 
    public static String linkifyRequestUrl(final String scheme, final Object uri, final String host, final int port) {
@@ -86,19 +88,85 @@ public final class HandlerUtils {
       return builder.toString();
    }
 
+   /**
+    * Reads body of POST and PUT requests as a whole, regardless of the request body limits given by command line args,
+    * which only apply to requests sent to stubs
+    *
+    * @return read body, or null if request method has no body, the body is empty or could not be read
+    */
    public static String extractPostRequestBody(final HttpServletRequest request, final String source) throws IOException {
-      final Set<String> httpMethodsContainingBody = new HashSet<String>() {{
-         add("post");
-         add("put");
-      }};
-      if (!httpMethodsContainingBody.contains(request.getMethod().toLowerCase())) return null;
+      final RequestBody requestBody = extractRequestBody(request, source, RequestBody.UNLIMITED, RequestBody.UNLIMITED);
+
+      return (requestBody == null ? null : requestBody.getContent());
+   }
+
+   /**
+    * Reads body of POST and PUT requests sent to stubs, up to the maximum size given by the command line arg
+    *
+    * @return read body, or null if request method has no body, the body is empty, could not be read or is too large
+    */
+   public static RequestBody extractRequestBody(final HttpServletRequest request, final String source) {
+      try {
+         return extractRequestBody(request, source, CommandLineInterpreter.getMaxRequestBodySize());
+      } catch (final RequestBodyTooLargeException ex) {
+         logRequestBodyError(request, source, ex);
+         return null;
+      }
+   }
+
+   /**
+    * Reads body of POST and PUT requests, up to the given maximum size
+    *
+    * @return read body, or null if request method has no body, the body is empty or could not be read
+    * @throws RequestBodyTooLargeException if the body is bigger than given maximum size
+    */
+   public static RequestBody extractRequestBody(final HttpServletRequest request, final String source, final int maxSize) throws RequestBodyTooLargeException {
+      return extractRequestBody(request, source, maxSize, CommandLineInterpreter.getHashOnlyRequestBodySize());
+   }
+
+   /**
+    * Reads body of POST and PUT requests, up to the given maximum size. Body bigger than the given hash only size
+    * is only hashed while read
+    *
+    * @return read body, or null if request method has no body, the body is empty or could not be read
+    * @throws RequestBodyTooLargeException if the body is bigger than given maximum size
+    */
+   public static RequestBody extractRequestBody(final HttpServletRequest request, final String source, final int maxSize, final int hashOnlySize) throws RequestBodyTooLargeException {
+      if (!HTTP_METHODS_CONTAINING_BODY.contains(request.getMethod().toLowerCase())) return null;
 
       try {
-         return StringUtils.inputStreamToString(request.getInputStream());
+         final RequestBody requestBody = RequestBody.read(request.getInputStream(), request.getContentLength(),
+            maxSize, hashOnlySize);
+
+         return (requestBody.getLength() == 0 ? null : requestBody);
+      } catch (final RequestBodyTooLargeException ex) {
+         throw ex;
       } catch (final Exception ex) {
-         final String err = String.format("Error when extracting POST body: %s, returning null..", ex.toString());
-         ConsoleUtils.logIncomingRequestError(request, source, err);
+         logRequestBodyError(request, source, ex);
          return null;
       }
    }
+
+   private static void logRequestBodyError(final HttpServletRequest request, final String source, final Exception ex) {
+      final String err = String.format("Error when extracting POST body: %s, returning null..", ex.toString());
+      ConsoleUtils.logIncomingRequestError(request, source, err);
+   }
+
+   /**
+    * Drops body of POST and PUT requests, which was not read, so that the connection can be reused for the next request
+    *
+    * @throws RequestBodyTooLargeException if the body is bigger than given maximum size
+    */
+   public static void discardRequestBody(final HttpServletRequest request, final String source, final int maxSize) throws RequestBodyTooLargeException {
+      if (!HTTP_METHODS_CONTAINING_BODY.contains(request.getMethod().toLowerCase())) return;
+
+      try {
+         RequestBody.discard(request.getInputStream(), maxSize);
+      } catch (final RequestBodyTooLargeException ex) {
+         throw ex;
+      } catch (final Exception ex) {
+         final String err = String.format("Error when discarding POST body: %s", ex.toString());
+         ConsoleUtils.logIncomingRequestError(request, source, err);
+      }
+   }
 }
\ No newline at end of file
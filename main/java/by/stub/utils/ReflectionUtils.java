@@ -23,12 +23,10 @@ import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -38,8 +36,6 @@ import java.util.Map;
 @SuppressWarnings("serial")
 public final class ReflectionUtils {
 
-   private static List<String> skipableProperties = Collections.unmodifiableList(Arrays.asList("AUTH_HEADER"));
-
    private ReflectionUtils() {
 
    }
@@ -56,7 +52,8 @@ public final class ReflectionUtils {
             }
          });
 
-         if (skipableProperties.contains(field.getName())) {
+         // Constants, and state derived while loading or matching, are not stubbed properties
+         if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
             continue;
          }
 
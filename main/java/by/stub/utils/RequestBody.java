@@ -0,0 +1,300 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.utils;
+
+import by.stub.exception.RequestBodyTooLargeException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Body of an incoming request, read from the input stream in chunks. The content hash is computed while the body
+ * is read, so that stubs can be looked up by their post body without decoding the incoming body into a string.
+ * The string is decoded only when the body is compared with a stubbed post body.
+ * <p/>
+ * Content hash ignores leading and trailing whitespace and does not distinguish Windows, Unix and pre OS X Mac line
+ * separators, therefore equal post bodies, normalized as in {@link by.stub.yaml.stubs.StubRequest#getPostBody()},
+ * always have equal content hashes.
+ * <p/>
+ * Body bigger than the hash only size is not kept at all, so it can only be matched by its content hash.
+ */
+public final class RequestBody {
+
+   public static final int UNLIMITED = Integer.MAX_VALUE - 8;
+
+   private static final int CHUNK_SIZE = 8192;
+   // Bigger buffers are not kept for reuse, so that a single big request does not pin memory of a pool thread
+   private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+   private static final ThreadLocal<byte[]> POOLED_BUFFER = new ThreadLocal<byte[]>() {
+      @Override
+      protected byte[] initialValue() {
+         return new byte[CHUNK_SIZE];
+      }
+   };
+
+   private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+   private static final long FNV_PRIME = 0x100000001b3L;
+
+   private final byte[] content;
+   private final int length;
+   private final long contentHash;
+   private volatile String decodedContent;
+
+   private RequestBody(final byte[] content, final int length, final long contentHash) {
+      this.content = content;
+      this.length = length;
+      this.contentHash = contentHash;
+   }
+
+   /**
+    * Reads the whole body from the given input stream
+    *
+    * @param inputStream   request input stream
+    * @param contentLength value of Content-Length header, or a value not greater than zero if not known
+    * @param maxSize       maximum number of bytes to read
+    * @return read body
+    * @throws RequestBodyTooLargeException if the body is bigger than given maximum size
+    * @throws IOException                  if the body could not be read
+    */
+   public static RequestBody read(final InputStream inputStream, final int contentLength, final int maxSize) throws IOException {
+      return read(inputStream, contentLength, maxSize, UNLIMITED);
+   }
+
+   /**
+    * Reads the whole body from the given input stream. Body bigger than the given hash only size is only hashed
+    * while it is read, and its content is not kept
+    *
+    * @param inputStream   request input stream
+    * @param contentLength value of Content-Length header, or a value not greater than zero if not known
+    * @param maxSize       maximum number of bytes to read
+    * @param hashOnlySize  maximum number of bytes to keep
+    * @return read body
+    * @throws RequestBodyTooLargeException if the body is bigger than given maximum size
+    * @throws IOException                  if the body could not be read
+    */
+   public static RequestBody read(final InputStream inputStream, final int contentLength, final int maxSize, final int hashOnlySize) throws IOException {
+      if (contentLength > maxSize) {
+         throw new RequestBodyTooLargeException(maxSize);
+      }
+
+      final ContentHasher contentHasher = new ContentHasher();
+      if (contentLength > hashOnlySize) {
+         return hashOnly(inputStream, 0, maxSize, contentHasher);
+      }
+
+      // Known length is read straight into the array kept by the body, otherwise the pooled buffer is filled first
+      final boolean isLengthKnown = contentLength > 0;
+      final int keptSize = Math.min(maxSize, hashOnlySize);
+      byte[] buffer = (isLengthKnown ? new byte[contentLength] : POOLED_BUFFER.get());
+      int length = 0;
+
+      while (true) {
+         if (length == keptSize) {
+            final int next = inputStream.read();
+            if (next < 0) {
+               break;
+            }
+            if (keptSize == maxSize) {
+               throw new RequestBodyTooLargeException(maxSize);
+            }
+
+            contentHasher.update((byte) next);
+            return hashOnly(inputStream, length + 1, maxSize, contentHasher);
+         }
+
+         if (length == buffer.length) {
+            if (isLengthKnown) {
+               break;
+            }
+            buffer = Arrays.copyOf(buffer, (int) Math.min((long) keptSize, buffer.length * 2L));
+         }
+
+         final int read = inputStream.read(buffer, length, Math.min(Math.min(buffer.length, keptSize) - length, CHUNK_SIZE));
+         if (read < 0) {
+            break;
+         }
+
+         contentHasher.update(buffer, length, read);
+         length += read;
+      }
+
+      if (isLengthKnown) {
+         return new RequestBody(length == buffer.length ? buffer : Arrays.copyOf(buffer, length), length, contentHasher.getHash());
+      }
+
+      if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+         POOLED_BUFFER.set(buffer);
+      }
+
+      return new RequestBody(Arrays.copyOf(buffer, length), length, contentHasher.getHash());
+   }
+
+   // Reads the rest of the body through the pooled buffer, feeding it to the content hash only
+   private static RequestBody hashOnly(final InputStream inputStream, final int readLength, final int maxSize, final ContentHasher contentHasher) throws IOException {
+      final byte[] buffer = POOLED_BUFFER.get();
+      int length = readLength;
+
+      while (true) {
+         if (length == maxSize) {
+            if (inputStream.read() < 0) {
+               break;
+            }
+            throw new RequestBodyTooLargeException(maxSize);
+         }
+
+         final int read = inputStream.read(buffer, 0, Math.min(buffer.length, maxSize - length));
+         if (read < 0) {
+            break;
+         }
+
+         contentHasher.update(buffer, 0, read);
+         length += read;
+      }
+
+      return new RequestBody(null, length, contentHasher.getHash());
+   }
+
+   /**
+    * Reads and drops the rest of the body, without keeping or hashing it
+    *
+    * @param inputStream request input stream
+    * @param maxSize     maximum number of bytes to drop
+    * @return number of dropped bytes
+    * @throws RequestBodyTooLargeException if the body is bigger than given maximum size
+    * @throws IOException                  if the body could not be read
+    */
+   public static long discard(final InputStream inputStream, final int maxSize) throws IOException {
+      final byte[] buffer = POOLED_BUFFER.get();
+      long discarded = 0;
+
+      for (int read = inputStream.read(buffer); read >= 0; read = inputStream.read(buffer)) {
+         discarded += read;
+         if (discarded > maxSize) {
+            throw new RequestBodyTooLargeException(maxSize);
+         }
+      }
+
+      return discarded;
+   }
+
+   /**
+    * Computes content hash of a stubbed post body
+    *
+    * @param postBody stubbed post body
+    * @return hash equal to the content hash of any incoming body which is equal to the given body when normalized
+    */
+   public static long contentHashOf(final String postBody) {
+      final byte[] bytes = (postBody == null ? new byte[0] : postBody.getBytes(StringUtils.utf8Charset()));
+      final ContentHasher contentHasher = new ContentHasher();
+      contentHasher.update(bytes, 0, bytes.length);
+
+      return contentHasher.getHash();
+   }
+
+   public long getContentHash() {
+      return contentHash;
+   }
+
+   public int getLength() {
+      return length;
+   }
+
+   /**
+    * @return true if the body was bigger than the hash only size, so only its content hash is known
+    */
+   public boolean isHashOnly() {
+      return content == null;
+   }
+
+   /**
+    * @return body decoded as UTF-8, without leading and trailing whitespace, or an empty string if only the content
+    * hash of the body is known. Decoded once, when first requested
+    */
+   public String getContent() {
+      if (content == null) {
+         return "";
+      }
+
+      if (decodedContent == null) {
+         decodedContent = new String(content, StringUtils.utf8Charset()).trim();
+      }
+
+      return decodedContent;
+   }
+
+   /**
+    * FNV-1a hash of the content, fed chunk by chunk. Every line separator within whitespace is hashed as '\n'.
+    * Whitespace is hashed as it comes, and the hash from before it is restored if the content ends within it,
+    * so the hasher needs constant memory however long the whitespace is.
+    */
+   private static final class ContentHasher {
+
+      private long hash = FNV_OFFSET_BASIS;
+      private long hashBeforeWhitespace;
+      private boolean isContentStarted;
+      private boolean isWithinWhitespace;
+      private boolean isAfterCarriageReturn;
+
+      void update(final byte[] bytes, final int offset, final int length) {
+         for (int idx = offset; idx < offset + length; idx++) {
+            update(bytes[idx]);
+         }
+      }
+
+      void update(final byte current) {
+         if (current >= 0 && current <= ' ') {
+            if (isContentStarted) {
+               updateWhitespace(current);
+            }
+            return;
+         }
+
+         isWithinWhitespace = false;
+         isAfterCarriageReturn = false;
+         isContentStarted = true;
+         hash(current);
+      }
+
+      private void updateWhitespace(final byte current) {
+         if (!isWithinWhitespace) {
+            hashBeforeWhitespace = hash;
+            isWithinWhitespace = true;
+         }
+
+         final boolean isLineFeedAfterCarriageReturn = (current == '\n' && isAfterCarriageReturn);
+         isAfterCarriageReturn = (current == '\r');
+         if (isLineFeedAfterCarriageReturn) {
+            return;
+         }
+
+         hash(current == '\r' ? (byte) '\n' : current);
+      }
+
+      private void hash(final byte current) {
+         hash = (hash ^ (current & 0xff)) * FNV_PRIME;
+      }
+
+      // Trailing whitespace is not part of the content
+      long getHash() {
+         return (isWithinWhitespace ? hashBeforeWhitespace : hash);
+      }
+   }
+}
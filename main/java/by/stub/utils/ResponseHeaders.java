@@ -0,0 +1,139 @@
+/*
+A Java-based HTTP stub server
+
+Copyright (C) 2012 Alexander Zagniotov, Isa Goksu and Eric Mrak
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package by.stub.utils;
+
+import org.eclipse.jetty.http.HttpHeaders;
+import org.eclipse.jetty.http.MimeTypes;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Response headers compiled once into plain arrays: the main headers sent with every response, except the ones
+ * overridden by the stub, followed by the stubbed headers. Writing them to a response does not iterate any map,
+ * does not lock and does not set the same header twice. Only the Date header is taken when writing, unless stubbed.
+ * <p/>
+ * Stubbed Content-Type without charset gets the UTF-8 charset, as response bodies are written in UTF-8.
+ */
+public final class ResponseHeaders {
+
+   // Expires header as formatted by Jetty for zero milliseconds since epoch
+   public static final String EXPIRES_IN_PAST = "Thu, 01 Jan 1970 00:00:00 GMT";
+
+   private static final String CHARSET_UTF_8 = String.format(";charset=%s", StringUtils.UTF_8);
+
+   private static final String[] MAIN_HEADER_NAMES = {
+      HttpHeaders.SERVER, HttpHeaders.CONTENT_TYPE, HttpHeaders.CACHE_CONTROL, HttpHeaders.PRAGMA, HttpHeaders.EXPIRES
+   };
+   private static final String[] MAIN_HEADER_VALUES = {
+      HandlerUtils.HEADER_SERVER_NAME, MimeTypes.TEXT_HTML_UTF_8, "no-cache, no-store, must-revalidate", "no-cache", EXPIRES_IN_PAST
+   };
+
+   /**
+    * Main headers sent with every response
+    */
+   public static final ResponseHeaders MAIN = compile(Collections.<String, String>emptyMap());
+
+   private final boolean isDateStubbed;
+   private final boolean isBodyEncodingStubbed;
+   private final String[] names;
+   private final String[] values;
+
+   private ResponseHeaders(final boolean isDateStubbed, final boolean isBodyEncodingStubbed, final List<String> names, final List<String> values) {
+      this.isDateStubbed = isDateStubbed;
+      this.isBodyEncodingStubbed = isBodyEncodingStubbed;
+      this.names = names.toArray(new String[names.size()]);
+      this.values = values.toArray(new String[values.size()]);
+   }
+
+   /**
+    * @param stubbedHeaders headers of a stubbed response, may be null
+    * @return main headers merged with the given headers
+    */
+   public static ResponseHeaders compile(final Map<String, String> stubbedHeaders) {
+      final Map<String, String> headers = (stubbedHeaders == null ? Collections.<String, String>emptyMap() : stubbedHeaders);
+
+      // Stubbed headers are a synchronized map, which has to be locked while iterated
+      synchronized (headers) {
+         return compileLocked(headers);
+      }
+   }
+
+   private static ResponseHeaders compileLocked(final Map<String, String> headers) {
+      final List<String> names = new ArrayList<String>(MAIN_HEADER_NAMES.length + headers.size());
+      final List<String> values = new ArrayList<String>(MAIN_HEADER_NAMES.length + headers.size());
+
+      for (int idx = 0; idx < MAIN_HEADER_NAMES.length; idx++) {
+         if (!containsIgnoreCase(headers, MAIN_HEADER_NAMES[idx])) {
+            names.add(MAIN_HEADER_NAMES[idx]);
+            values.add(MAIN_HEADER_VALUES[idx]);
+         }
+      }
+
+      for (final Map.Entry<String, String> entry : headers.entrySet()) {
+         names.add(entry.getKey());
+         values.add(HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(entry.getKey()) ? withCharset(entry.getValue()) : entry.getValue());
+      }
+
+      final boolean isBodyEncodingStubbed = containsIgnoreCase(headers, HttpHeaders.CONTENT_ENCODING) ||
+         containsIgnoreCase(headers, HttpHeaders.CONTENT_LENGTH);
+
+      return new ResponseHeaders(containsIgnoreCase(headers, HttpHeaders.DATE), isBodyEncodingStubbed, names, values);
+   }
+
+   private static boolean containsIgnoreCase(final Map<String, String> headers, final String headerName) {
+      for (final String name : headers.keySet()) {
+         if (headerName.equalsIgnoreCase(name)) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   private static String withCharset(final String contentType) {
+      if (contentType == null || contentType.toLowerCase(Locale.US).contains("charset=")) {
+         return contentType;
+      }
+
+      return contentType + CHARSET_UTF_8;
+   }
+
+   /**
+    * @return true if the stub sets its own Content-Encoding or Content-Length header, so the body must be sent as is
+    */
+   public boolean isBodyEncodingStubbed() {
+      return isBodyEncodingStubbed;
+   }
+
+   public void writeTo(final HttpServletResponse response) {
+      if (!isDateStubbed) {
+         response.setHeader(HttpHeaders.DATE, DateTicker.getHeaderDate());
+      }
+
+      for (int idx = 0; idx < names.length; idx++) {
+         response.setHeader(names[idx], values[idx]);
+      }
+   }
+}
@@ -37,6 +37,7 @@ public final class StringUtils {
 
    public static final String UTF_8 = "UTF-8";
 
+   private static final Charset UTF_8_CHARSET = Charset.forName(StringUtils.UTF_8);
    private static final CharsetEncoder US_ASCII_ENCODER = Charset.forName("US-ASCII").newEncoder();
 
    private StringUtils() {
@@ -70,7 +71,7 @@ public final class StringUtils {
    }
 
    public static Charset utf8Charset() {
-      return Charset.forName(StringUtils.UTF_8);
+      return UTF_8_CHARSET;
    }
 
    public static String utf8String(final byte[] bytes) {
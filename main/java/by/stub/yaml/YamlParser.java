@@ -20,6 +20,8 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 package by.stub.yaml;
 
 import by.stub.cli.ANSITerminal;
+import by.stub.cli.CommandLineInterpreter;
+import by.stub.utils.FileContentCache;
 import by.stub.utils.FileUtils;
 import by.stub.utils.ReflectionUtils;
 import by.stub.utils.StringUtils;
@@ -39,6 +41,8 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -55,8 +59,11 @@ public final class YamlParser {
    }
 
    private static final String YAML_NODE_REQUEST = "request";
+   private static final String YAML_NODE_SERVER = "server";
    private String loadedConfigAbsolutePath;
    private String yamlConfigFilename;
+   private volatile FileContentCache fileContentCache;
+   private volatile Map<String, Object> serverSettings = Collections.emptyMap();
 
    private YamlParser() {
 
@@ -69,6 +76,16 @@ public final class YamlParser {
       this.yamlConfigFilename = yamlConfigFilename;
    }
 
+   /**
+    * @param yamlConfigFilename YAML config filename
+    * @param fileCacheBytes     memory budget in bytes for content of response files, which are then loaded when
+    *                           first used instead of when parsed. Files are loaded when parsed, if not greater than zero
+    */
+   public YamlParser(final String yamlConfigFilename, final long fileCacheBytes) {
+      this(yamlConfigFilename);
+      this.fileContentCache = (fileCacheBytes > 0 ? new FileContentCache(fileCacheBytes) : null);
+   }
+
    private Reader buildYamlReaderFromFilename() throws IOException {
 
       final File yamlFile = new File(yamlConfigFilename);
@@ -98,7 +115,14 @@ public final class YamlParser {
       final List<StubHttpLifecycle> httpLifecycles = new LinkedList<StubHttpLifecycle>();
       final List<?> loadedYamlData = loadYamlData(io);
 
+      // Local to this run, as the watcher thread and admin requests may parse at the same time. Reloaded stubs
+      // may refer to changed files, so they get an empty cache, while the loaded stubs keep using theirs
+      final FileContentCache loadedFileContentCache = (fileContentCache == null ? null : fileContentCache.emptyCopy());
+      final LoadedFileContents loadedFileContents = new LoadedFileContents(loadedFileContentCache);
+      Map<String, Object> loadedServerSettings = Collections.emptyMap();
+
       if (loadedYamlData.isEmpty()) {
+         serverSettings = loadedServerSettings;
          return httpLifecycles;
       }
 
@@ -106,10 +130,21 @@ public final class YamlParser {
 
          final LinkedHashMap<String, LinkedHashMap> parentNode = (LinkedHashMap<String, LinkedHashMap>) rawParentNode;
 
+         // Server section is not a stub, its settings take effect only when stubby starts
+         if (parentNode.containsKey(YAML_NODE_SERVER)) {
+            final Object rawServerSettings = parentNode.get(YAML_NODE_SERVER);
+            if (rawServerSettings instanceof Map) {
+               loadedServerSettings = Collections.unmodifiableMap((Map<String, Object>) rawServerSettings);
+            }
+            continue;
+         }
+
          final StubHttpLifecycle parentStub = new StubHttpLifecycle(new StubRequest(), new StubResponse());
          httpLifecycles.add(parentStub);
 
-         mapRootYamlNodeToStub(parentStub, parentNode);
+         mapRootYamlNodeToStub(parentStub, parentNode, loadedFileContents);
+         parentStub.getRequest().precompute();
+         parentStub.getResponse().precompute();
 
          final ArrayList<String> method = parentStub.getRequest().getMethod();
          final String url = parentStub.getRequest().getUrl();
@@ -117,26 +152,32 @@ public final class YamlParser {
          ANSITerminal.loaded(loadedMsg);
       }
 
+      // Stubs loaded in full replace the loaded ones, so do the cache they use and the server settings
+      if (loadedFileContentCache != null) {
+         fileContentCache = loadedFileContentCache;
+      }
+      serverSettings = loadedServerSettings;
+
       return httpLifecycles;
    }
 
    @SuppressWarnings("unchecked")
-   protected void mapRootYamlNodeToStub(final StubHttpLifecycle parentStub, final LinkedHashMap<String, LinkedHashMap> parentNode) throws Exception {
+   protected void mapRootYamlNodeToStub(final StubHttpLifecycle parentStub, final LinkedHashMap<String, LinkedHashMap> parentNode, final LoadedFileContents loadedFileContents) throws Exception {
       for (final Map.Entry<String, LinkedHashMap> parent : parentNode.entrySet()) {
 
          final LinkedHashMap<String, Object> httpSettings = (LinkedHashMap<String, Object>) parent.getValue();
 
          if (parent.getKey().equals(YAML_NODE_REQUEST)) {
-            mapPairValueToRespectiveField(parentStub.getRequest(), httpSettings);
+            mapPairValueToRespectiveField(parentStub.getRequest(), httpSettings, loadedFileContents);
             continue;
          }
 
-         mapPairValueToRespectiveField(parentStub.getResponse(), httpSettings);
+         mapPairValueToRespectiveField(parentStub.getResponse(), httpSettings, loadedFileContents);
       }
    }
 
    @SuppressWarnings("unchecked")
-   protected void mapPairValueToRespectiveField(final Object target, final LinkedHashMap<String, Object> httpProperties) throws Exception {
+   protected void mapPairValueToRespectiveField(final Object target, final LinkedHashMap<String, Object> httpProperties, final LoadedFileContents loadedFileContents) throws Exception {
 
       for (final Map.Entry<String, Object> pair : httpProperties.entrySet()) {
 
@@ -155,8 +196,16 @@ public final class YamlParser {
                add(pairValueToString(rawPairValue));
             }};
 
+         } else if (pairKey.toLowerCase().equals("file") && target instanceof StubResponse && isMappedFile(rawPairValue)) {
+            ((StubResponse) target).setMappedFile(FileUtils.binaryFileToMappedBuffer(pairValueToString(rawPairValue)));
+            continue;
+
+         } else if (pairKey.toLowerCase().equals("file") && target instanceof StubResponse && loadedFileContents.getFileContentCache() != null) {
+            ((StubResponse) target).setCachedFile(loadedFileContents.getFileContentCache(), extractExistingFilePath(rawPairValue));
+            continue;
+
          } else if (pairKey.toLowerCase().equals("file")) {
-            massagedPairValue = extractBytesFromFilecontent(rawPairValue);
+            massagedPairValue = loadedFileContents.load(pairValueToString(rawPairValue));
 
          } else {
             massagedPairValue = pairValueToString(rawPairValue);
@@ -166,17 +215,27 @@ public final class YamlParser {
       }
    }
 
-   private byte[] extractBytesFromFilecontent(final Object rawPairValue) throws IOException {
+   private boolean isMappedFile(final Object rawPairValue) throws IOException {
+      final long mappedFileThreshold = CommandLineInterpreter.getMappedFileThreshold();
+      if (mappedFileThreshold < 0) {
+         return false;
+      }
+
+      final String relativeFilePath = pairValueToString(rawPairValue);
+      final String extension = relativeFilePath.substring(relativeFilePath.lastIndexOf("."));
+
+      return !FileUtils.ASCII_TYPES.contains(extension) && FileUtils.fileSize(relativeFilePath) >= mappedFileThreshold;
+   }
 
+   private String extractExistingFilePath(final Object rawPairValue) throws IOException {
       final String relativeFilePath = pairValueToString(rawPairValue);
-      final int dotLocation = relativeFilePath.lastIndexOf(".");
-      final String extension = relativeFilePath.substring(dotLocation);
 
-      if (FileUtils.ASCII_TYPES.contains(extension)) {
-         return FileUtils.asciiFileToUtf8Bytes(relativeFilePath);
+      // Fails on load as before, even though the content is loaded when first used
+      if (!FileUtils.isFile(relativeFilePath)) {
+         throw new IOException(String.format("Could not load file from path: %s", relativeFilePath));
       }
 
-      return FileUtils.binaryFileToBytes(relativeFilePath);
+      return relativeFilePath;
    }
 
    private String pairValueToString(final Object value) throws IOException {
@@ -211,10 +270,76 @@ public final class YamlParser {
       throw new IOException(String.format("Loaded YAML data from %s must be an instance of ArrayList, otherwise something went wrong..", yamlConfigFilename));
    }
 
+   /**
+    * @return thread pool and connector settings from the server section of the last loaded YAML, or an empty map
+    * if the YAML had no server section
+    */
+   public Map<String, Object> getServerSettings() {
+      return serverSettings;
+   }
+
    public String getLoadedConfigYamlPath() {
       return loadedConfigAbsolutePath;
    }
 
+   /**
+    * @return cache of response file content used by the last loaded stubs, or null if files are loaded when parsed
+    */
+   public FileContentCache getFileContentCache() {
+      return fileContentCache;
+   }
+
+   /**
+    * File content loaded in a single run. Identical content, loaded for different stubs or from different paths,
+    * is kept only once and shared by all stubs loaded in the run. A file which was already loaded, and has not
+    * changed since, is not read again. Content of another file is compared only with loaded contents of the same length.
+    * Response files loaded when first used are cached by the cache of the run
+    */
+   protected static final class LoadedFileContents {
+
+      private final Map<String, byte[]> byFile = new HashMap<String, byte[]>();
+      private final Map<Integer, List<byte[]>> byLength = new HashMap<Integer, List<byte[]>>();
+      private final FileContentCache fileContentCache;
+
+      LoadedFileContents(final FileContentCache fileContentCache) {
+         this.fileContentCache = fileContentCache;
+      }
+
+      FileContentCache getFileContentCache() {
+         return fileContentCache;
+      }
+
+      byte[] load(final String filePath) throws IOException {
+         final String fileIdentity = FileUtils.fileIdentity(filePath);
+         final byte[] loadedFileContent = byFile.get(fileIdentity);
+         if (loadedFileContent != null) {
+            return loadedFileContent;
+         }
+
+         final byte[] sharedFileContent = share(FileUtils.fileToBytes(filePath));
+         byFile.put(fileIdentity, sharedFileContent);
+
+         return sharedFileContent;
+      }
+
+      private byte[] share(final byte[] fileContent) {
+         List<byte[]> sameLengthContents = byLength.get(fileContent.length);
+         if (sameLengthContents == null) {
+            sameLengthContents = new LinkedList<byte[]>();
+            byLength.put(fileContent.length, sameLengthContents);
+         }
+
+         for (final byte[] loadedFileContent : sameLengthContents) {
+            if (Arrays.equals(loadedFileContent, fileContent)) {
+               return loadedFileContent;
+            }
+         }
+         sameLengthContents.add(fileContent);
+
+         return fileContent;
+      }
+   }
+
    private static final class YamlParserResolver extends Resolver {
 
       public YamlParserResolver() {
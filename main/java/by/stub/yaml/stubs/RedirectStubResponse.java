@@ -35,12 +35,13 @@ public class RedirectStubResponse extends StubResponse {
    }
 
    public RedirectStubResponse configure(final StubResponse stubResponse) {
-      setLatency(stubResponse.getLatency());
-      setBody(stubResponse.getBody());
-      setStatus(stubResponse.getStatus());
-      setHeaders(stubResponse.getHeaders());
-      setFile(stubResponse.getFile());
+      shareContentOf(stubResponse);
 
       return this;
    }
+
+   @Override
+   public RedirectStubResponse getRedirectStubResponse() {
+      return this;
+   }
 }
\ No newline at end of file
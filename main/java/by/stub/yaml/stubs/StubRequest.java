@@ -21,9 +21,11 @@ package by.stub.yaml.stubs;
 
 import by.stub.cli.ANSITerminal;
 import by.stub.cli.CommandLineInterpreter;
+import by.stub.exception.RequestBodyTooLargeException;
 import by.stub.utils.CollectionUtils;
 import by.stub.utils.FileUtils;
 import by.stub.utils.HandlerUtils;
+import by.stub.utils.RequestBody;
 import by.stub.utils.StringUtils;
 
 import javax.servlet.http.HttpServletRequest;
@@ -37,6 +39,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * @author Alexander Zagniotov
@@ -54,6 +57,17 @@ public class StubRequest {
    private byte[] file;
    private Map<String, String> headers = new HashMap<String, String>();
    private Map<String, String> query = new HashMap<String, String>();
+   private String maxbody;
+   private transient int maxBodySize = -1;
+   private transient HttpServletRequest unreadBodyRequest;
+   private transient int bodySizeLimit = -1;
+   private transient boolean isBodyTooLarge;
+   private transient RequestBody requestBody;
+   private transient String normalizedPostBody;
+   private transient int postBodyHash;
+   private transient long postBodyContentHash;
+   private transient boolean isPostBodyContentHashed;
+   private transient Pattern urlPattern;
 
    public StubRequest() {
 
@@ -75,6 +89,7 @@ public class StubRequest {
 
    public void setUrl(final String url) {
       this.url = url;
+      this.urlPattern = null;
    }
 
    public final String getUrl() {
@@ -87,23 +102,264 @@ public class StubRequest {
       return String.format("%s?%s", url, queryString);
    }
 
+   //URL path without the query string, as it was stubbed or received
+   public final String getUrlPath() {
+      return url;
+   }
+
+   //Compiled URL pattern, or null if the URL was stubbed as a literal path
+   public final Pattern getUrlPattern() {
+      return urlPattern;
+   }
+
+   //HTTP methods as they were stubbed or received, without case conversion
+   public final List<String> getMethods() {
+      return method;
+   }
+
    public String getPostBody() {
-      if (file == null) {
-         return FileUtils.enforceSystemLineSeparator(post);
+      if (normalizedPostBody == null) {
+         normalizePostBody();
+      }
+
+      return normalizedPostBody;
+   }
+
+   public int getPostBodyHash() {
+      if (normalizedPostBody == null) {
+         normalizePostBody();
+      }
+
+      return postBodyHash;
+   }
+
+   /**
+    * @return content hash of the post body, which for incoming request is computed while its body is read
+    * @see RequestBody
+    */
+   public long getPostBodyContentHash() {
+      final RequestBody readRequestBody = readRequestBody();
+      if (readRequestBody != null) {
+         return readRequestBody.getContentHash();
+      }
+
+      if (!isPostBodyContentHashed) {
+         postBodyContentHash = RequestBody.contentHashOf(getPostBody());
+         isPostBodyContentHashed = true;
+      }
+
+      return postBodyContentHash;
+   }
+
+   /**
+    * Normalizes line separators of the post body (or file content), computes its hash and compiles the URL pattern,
+    * if the URL is a regular expression (starts with '^') or a glob (contains '*'). Called once the stub has been
+    * loaded, so that none of these is recomputed whenever the stub is compared with an incoming request
+    */
+   public void precompute() {
+      normalizePostBody();
+      getPostBodyContentHash();
+      urlPattern = compileUrlPattern(url);
+      maxBodySize = parseMaxBodySize();
+   }
+
+   private int parseMaxBodySize() {
+      if (!StringUtils.isSet(maxbody)) {
+         return -1;
+      }
+
+      try {
+         final int parsedMaxBodySize = Integer.parseInt(maxbody.trim());
+         if (parsedMaxBodySize >= 0) {
+            return parsedMaxBodySize;
+         }
+      } catch (final NumberFormatException ex) {
+         // Reported below, together with negative sizes
+      }
+
+      throw new IllegalArgumentException(String.format("Stub %s %s has invalid maxbody '%s', expected number of bytes not less than zero",
+         getMethod(), url, maxbody));
+   }
+
+   private void normalizePostBody() {
+      final String rawPostBody = (file == null ? getPost() : StringUtils.utf8String(file));
+
+      normalizedPostBody = FileUtils.enforceSystemLineSeparator(rawPostBody);
+      postBodyHash = normalizedPostBody.hashCode();
+   }
+
+   // In a glob, '*' matches within a single path segment and '**' matches across segments
+   private static Pattern compileUrlPattern(final String url) {
+      if (url == null) {
+         return null;
+      }
+
+      if (url.startsWith("^")) {
+         return Pattern.compile(url);
+      }
+
+      if (url.indexOf('*') < 0) {
+         return null;
       }
-      final String utf8FileContent = new String(file, StringUtils.utf8Charset());
-      return FileUtils.enforceSystemLineSeparator(utf8FileContent);
+
+      final StringBuilder regex = new StringBuilder();
+      int literalStart = 0;
+      for (int idx = 0; idx < url.length(); idx++) {
+         if (url.charAt(idx) != '*') {
+            continue;
+         }
+
+         if (literalStart < idx) {
+            regex.append(Pattern.quote(url.substring(literalStart, idx)));
+         }
+
+         if (idx + 1 < url.length() && url.charAt(idx + 1) == '*') {
+            regex.append(".*");
+            idx++;
+         } else {
+            regex.append("[^/]*");
+         }
+         literalStart = idx + 1;
+      }
+
+      if (literalStart < url.length()) {
+         regex.append(Pattern.quote(url.substring(literalStart)));
+      }
+
+      return Pattern.compile(regex.toString());
    }
 
    public void setPost(final String post) {
       this.post = post;
+      this.unreadBodyRequest = null;
+      this.requestBody = null;
+      this.normalizedPostBody = null;
+      this.isPostBodyContentHashed = false;
+   }
+
+   //Body of incoming request, which is decoded into post only when compared with a stubbed post body
+   public void setRequestBody(final RequestBody requestBody) {
+      this.unreadBodyRequest = null;
+      this.requestBody = requestBody;
+      this.post = null;
+      this.normalizedPostBody = null;
+      this.isPostBodyContentHashed = false;
    }
 
    //Used by reflection when populating stubby admin page with stubbed information
    public String getPost() {
+      final RequestBody readRequestBody = readRequestBody();
+      if (post == null && readRequestBody != null) {
+         post = readRequestBody.getContent();
+      }
+
       return post;
    }
 
+   // Body of incoming request is read only once a stub, which is compared with the request, is matched on post body
+   private RequestBody readRequestBody() {
+      if (unreadBodyRequest != null) {
+         final HttpServletRequest request = unreadBodyRequest;
+         unreadBodyRequest = null;
+         requestBody = (bodySizeLimit < 0 ? HandlerUtils.extractRequestBody(request, "stubs") : extractLimitedRequestBody(request));
+      }
+
+      return requestBody;
+   }
+
+   private RequestBody extractLimitedRequestBody(final HttpServletRequest request) {
+      try {
+         return HandlerUtils.extractRequestBody(request, "stubs", bodySizeLimit);
+      } catch (final RequestBodyTooLargeException ex) {
+         isBodyTooLarge = true;
+         return null;
+      }
+   }
+
+   /**
+    * @return length in bytes of body of incoming request, or 0 if the request has no body
+    */
+   public int getPostBodyLength() {
+      final RequestBody readRequestBody = readRequestBody();
+
+      return (readRequestBody == null ? 0 : readRequestBody.getLength());
+   }
+
+   /**
+    * @return true if body of incoming request was only hashed while read, so it can be matched on content hash only
+    */
+   public boolean isPostBodyHashOnly() {
+      final RequestBody readRequestBody = readRequestBody();
+
+      return readRequestBody != null && readRequestBody.isHashOnly();
+   }
+
+   //Used by reflection when populating stubby admin page with stubbed information
+   public String getMaxBody() {
+      return maxbody;
+   }
+
+   /**
+    * @return maximum size in bytes of request bodies sent to this stub's URL, as parsed by {@link #precompute()},
+    * or -1 if it was not stubbed
+    */
+   public int getMaxBodySize() {
+      return maxBodySize;
+   }
+
+   /**
+    * Limits the number of bytes read from body of incoming request, instead of the limit given by the command line arg.
+    * Body announced to be bigger than the limit is not read at all
+    */
+   public void setBodySizeLimit(final int bodySizeLimit) {
+      this.bodySizeLimit = bodySizeLimit;
+
+      if (unreadBodyRequest != null && unreadBodyRequest.getContentLength() > bodySizeLimit) {
+         unreadBodyRequest = null;
+         isBodyTooLarge = true;
+      }
+   }
+
+   /**
+    * @return maximum size in bytes of body of incoming request, or -1 if it was not limited
+    */
+   public int getBodySizeLimit() {
+      return bodySizeLimit;
+   }
+
+   /**
+    * @return true if body of incoming request turned out to be bigger than its limit when read or discarded,
+    * and was dropped
+    */
+   public boolean isBodyTooLarge() {
+      return isBodyTooLarge;
+   }
+
+   /**
+    * Reads body of incoming request, if it has not been read for matching, e.g.: to show it in a not found response.
+    * The body is subject to its limit
+    */
+   public void readUnreadBody() {
+      readRequestBody();
+   }
+
+   /**
+    * Drops body of incoming request, if it has not been read for matching. The body is still subject to its limit
+    */
+   public void discardUnreadBody() {
+      if (unreadBodyRequest == null) {
+         return;
+      }
+
+      final HttpServletRequest request = unreadBodyRequest;
+      unreadBodyRequest = null;
+      try {
+         HandlerUtils.discardRequestBody(request, "stubs", bodySizeLimit < 0 ? CommandLineInterpreter.getMaxRequestBodySize() : bodySizeLimit);
+      } catch (final RequestBodyTooLargeException ex) {
+         isBodyTooLarge = true;
+      }
+   }
+
    public final Map<String, String> getHeaders() {
       return headers;
    }
@@ -131,6 +387,8 @@ public class StubRequest {
 
    public void setFile(final byte[] file) {
       this.file = file;
+      this.normalizedPostBody = null;
+      this.isPostBodyContentHashed = false;
    }
 
    public static StubRequest createFromHttpServletRequest(final HttpServletRequest request) throws IOException {
@@ -138,7 +396,7 @@ public class StubRequest {
 
       assertionRequest.setMethod(request.getMethod());
       assertionRequest.setUrl(request.getPathInfo());
-      assertionRequest.setPost(HandlerUtils.extractPostRequestBody(request, "stubs"));
+      assertionRequest.unreadBodyRequest = request;
 
       final Enumeration<String> headerNamesEnumeration = request.getHeaderNames();
       final List<String> headerNames = headerNamesEnumeration == null ? new LinkedList<String>() : Collections.list(request.getHeaderNames());
@@ -160,11 +418,13 @@ public class StubRequest {
       final StubRequest other = (StubRequest) o;
 
       final String postBody = other.getPostBody();
-      if (StringUtils.isSet(postBody) && stringValuesDoNotMatch("post body", other.getPostBody(), this.getPostBody()))
+      if (StringUtils.isSet(postBody) && (isPostBodyHashOnly() ?
+         contentHashesDoNotMatch(other.getPostBodyContentHash(), getPostBodyContentHash()) : stringValuesDoNotMatch("post body", postBody, this.getPostBody())))
          return false;
 
       if (arraysDoNotMatch(other.method, this.method)) return false;
-      if (stringValuesDoNotMatch("url", other.url, this.url)) return false;
+      if (other.urlPattern != null ? urlDoesNotMatchPattern(other.urlPattern, this.url) : stringValuesDoNotMatch("url", other.url, this.url))
+         return false;
 
       if (!other.getHeaders().isEmpty()) {
 
@@ -216,6 +476,24 @@ public class StubRequest {
       return false;
    }
 
+   private boolean contentHashesDoNotMatch(final long othersContentHash, final long myContentHash) {
+      if (othersContentHash != myContentHash) {
+         if (CommandLineInterpreter.isDebug())
+            ANSITerminal.warn(String.format("Could not match incoming 'post body' content hash with configured: %s VS %s", othersContentHash, myContentHash));
+         return true;
+      }
+      return false;
+   }
+
+   private boolean urlDoesNotMatchPattern(final Pattern othersUrlPattern, final String myUrl) {
+      if (myUrl == null || !othersUrlPattern.matcher(myUrl).matches()) {
+         if (CommandLineInterpreter.isDebug())
+            ANSITerminal.warn(String.format("Could not match incoming 'url' with configured pattern: %s VS %s", othersUrlPattern, myUrl));
+         return true;
+      }
+      return false;
+   }
+
    private boolean arraysDoNotMatch(final ArrayList<String> othersArray, final ArrayList<String> myArray) {
       if (othersArray == null && myArray == null) return false;
       if (othersArray == null || myArray == null) return true;
@@ -240,7 +518,7 @@ public class StubRequest {
    public final int hashCode() {
       int result = url.hashCode();
       result = 31 * result;
-      result = 31 * result + getPostBody().hashCode();
+      result = 31 * result + getPostBodyHash();
       return result;
    }
 
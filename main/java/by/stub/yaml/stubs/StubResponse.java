@@ -19,8 +19,14 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 
 package by.stub.yaml.stubs;
 
+import by.stub.exception.Stubby4JException;
+import by.stub.utils.CompressionUtils;
+import by.stub.utils.FileContentCache;
+import by.stub.utils.ResponseHeaders;
 import by.stub.utils.StringUtils;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -31,11 +37,22 @@ import java.util.Map;
  */
 public class StubResponse {
 
+   // Marks compressed body which is not smaller than the body itself
+   private static final ByteBuffer NOT_COMPRESSIBLE = ByteBuffer.allocate(0);
+
    private String status = "200";
    private String body;
    private byte[] file;
    private String latency;
    private Map<String, String> headers = Collections.synchronizedMap(new HashMap<String, String>());
+   private transient ResponseHeaders responseHeaders;
+   private transient ByteBuffer mappedFile;
+   private transient FileContentCache fileContentCache;
+   private transient String cachedFilePath;
+   private transient ByteBuffer responseBodyBuffer;
+   private transient volatile ByteBuffer gzipBodyBuffer;
+   private transient volatile ByteBuffer deflateBodyBuffer;
+   private transient volatile RedirectStubResponse redirectStubResponse;
 
    public StubResponse() {
 
@@ -47,6 +64,7 @@ public class StubResponse {
 
    public void setStatus(final String status) {
       this.status = status;
+      this.redirectStubResponse = null;
    }
 
    public String getBody() {
@@ -56,6 +74,7 @@ public class StubResponse {
 
    public void setBody(final String body) {
       this.body = body;
+      resetResponseBodyBuffers();
    }
 
    public Map<String, String> getHeaders() {
@@ -64,6 +83,19 @@ public class StubResponse {
 
    public void setHeaders(final Map<String, String> headers) {
       this.headers = headers;
+      this.responseHeaders = null;
+      this.redirectStubResponse = null;
+   }
+
+   /**
+    * @return main response headers merged with the stubbed headers, compiled when the stub has been loaded
+    */
+   public ResponseHeaders getResponseHeaders() {
+      if (responseHeaders == null) {
+         responseHeaders = ResponseHeaders.compile(headers);
+      }
+
+      return responseHeaders;
    }
 
    public String getLatency() {
@@ -72,10 +104,38 @@ public class StubResponse {
 
    public void setLatency(final String latency) {
       this.latency = latency;
+      this.redirectStubResponse = null;
    }
 
    public void setFile(final byte[] file) {
       this.file = file;
+      this.mappedFile = null;
+      this.cachedFilePath = null;
+      resetResponseBodyBuffers();
+   }
+
+   //Large binary file content, which is memory-mapped instead of being loaded onto the heap
+   public void setMappedFile(final ByteBuffer mappedFile) {
+      this.mappedFile = mappedFile;
+      this.file = null;
+      this.cachedFilePath = null;
+      resetResponseBodyBuffers();
+   }
+
+   //File content, which is loaded through the given cache when the response is sent
+   public void setCachedFile(final FileContentCache fileContentCache, final String cachedFilePath) {
+      this.fileContentCache = fileContentCache;
+      this.cachedFilePath = cachedFilePath;
+      this.file = null;
+      this.mappedFile = null;
+      resetResponseBodyBuffers();
+   }
+
+   private void resetResponseBodyBuffers() {
+      this.responseBodyBuffer = null;
+      this.gzipBodyBuffer = null;
+      this.deflateBodyBuffer = null;
+      this.redirectStubResponse = null;
    }
 
    //Used by reflection when populating stubby admin page with stubbed information
@@ -84,12 +144,138 @@ public class StubResponse {
    }
 
    public byte[] getResponseBody() {
+      if (cachedFilePath != null) {
+         try {
+            return fileContentCache.get(cachedFilePath);
+         } catch (final IOException ex) {
+            throw new Stubby4JException(String.format("Could not load file from path: %s", cachedFilePath), ex);
+         }
+      }
+
+      if (mappedFile != null) {
+         final ByteBuffer mappedContent = mappedFile.duplicate();
+         final byte[] content = new byte[mappedContent.remaining()];
+         mappedContent.get(content);
+
+         return content;
+      }
+
       if (file == null) {
          return getBody().getBytes(StringUtils.utf8Charset());
       }
       return file;
    }
 
+   /**
+    * Encodes the response body (or takes the file content) and compiles the response headers once the stub has been
+    * loaded, so that neither is done again whenever the response is sent. Memory-mapped file content is not copied,
+    * and cached file content is not loaded until the response is sent. Response of a stub with location header
+    * is prepared as a redirect response, sharing the same precomputed content
+    */
+   public void precompute() {
+      responseHeaders = ResponseHeaders.compile(headers);
+
+      if (cachedFilePath == null) {
+         responseBodyBuffer = (mappedFile == null ? ByteBuffer.wrap(getResponseBody()) : mappedFile.duplicate());
+      }
+
+      redirectStubResponse = null;
+      if (hasHeader("location")) {
+         getRedirectStubResponse();
+      }
+   }
+
+   /**
+    * @return redirect response sharing the content of this response, prepared when the stub has been loaded,
+    * so that it is not built again whenever the stub is matched
+    */
+   public RedirectStubResponse getRedirectStubResponse() {
+      // Racing requests may build the same redirect response, the result is equal either way
+      if (redirectStubResponse == null) {
+         redirectStubResponse = new RedirectStubResponse().configure(this);
+      }
+
+      return redirectStubResponse;
+   }
+
+   /**
+    * Takes the stubbed and precomputed content of the given response, sharing file content, compiled headers
+    * and encoded body without copying them
+    *
+    * @param stubResponse response to take the content of
+    */
+   protected void shareContentOf(final StubResponse stubResponse) {
+      this.status = stubResponse.status;
+      this.body = stubResponse.body;
+      this.file = stubResponse.file;
+      this.latency = stubResponse.latency;
+      this.headers = stubResponse.headers;
+      this.responseHeaders = stubResponse.getResponseHeaders();
+      this.mappedFile = stubResponse.mappedFile;
+      this.fileContentCache = stubResponse.fileContentCache;
+      this.cachedFilePath = stubResponse.cachedFilePath;
+      this.responseBodyBuffer = stubResponse.responseBodyBuffer;
+      this.gzipBodyBuffer = stubResponse.gzipBodyBuffer;
+      this.deflateBodyBuffer = stubResponse.deflateBodyBuffer;
+   }
+
+   /**
+    * @return response body shared by all requests, which must not be modified. Every call returns
+    * a new view of the same bytes, so that callers do not share position and limit. The buffer is direct,
+    * without accessible array, if the file content is memory-mapped
+    */
+   public ByteBuffer getResponseBodyBuffer() {
+      // Cached file content is not pinned by the response, so that the cache can evict it
+      if (cachedFilePath != null) {
+         return ByteBuffer.wrap(getResponseBody());
+      }
+
+      if (responseBodyBuffer == null) {
+         precompute();
+      }
+
+      return responseBodyBuffer.duplicate();
+   }
+
+   /**
+    * Checks if the body can be sent compressed: the body is kept on the heap and the stub
+    * does not set its own Content-Encoding or Content-Length header, as found when the headers were compiled
+    *
+    * @return true if compressed body can be negotiated
+    */
+   public boolean isCompressible() {
+      return mappedFile == null && cachedFilePath == null && !getResponseHeaders().isBodyEncodingStubbed();
+   }
+
+   /**
+    * Compresses the body with given content encoding when first requested, then returns the same compressed bytes,
+    * so that the body is never compressed again while stub is loaded
+    *
+    * @param contentEncoding gzip or deflate
+    * @return compressed body shared by all requests, which must not be modified, or null if compressed
+    * body is not smaller than the body itself
+    */
+   public ByteBuffer getCompressedBodyBuffer(final String contentEncoding) {
+      final boolean isGzip = CompressionUtils.GZIP.equals(contentEncoding);
+      ByteBuffer compressedBodyBuffer = (isGzip ? gzipBodyBuffer : deflateBodyBuffer);
+
+      // Racing requests may compress the same body, the result is equal either way
+      if (compressedBodyBuffer == null) {
+         final ByteBuffer bodyBuffer = getResponseBodyBuffer();
+         final byte[] compressedBody = CompressionUtils.compress(bodyBuffer.array(),
+            bodyBuffer.arrayOffset() + bodyBuffer.position(), bodyBuffer.remaining(), contentEncoding);
+         compressedBodyBuffer = (compressedBody.length < bodyBuffer.remaining() ? ByteBuffer.wrap(compressedBody) : NOT_COMPRESSIBLE);
+
+         if (isGzip) {
+            gzipBodyBuffer = compressedBodyBuffer;
+         } else {
+            deflateBodyBuffer = compressedBodyBuffer;
+         }
+      }
+
+      return (compressedBodyBuffer == NOT_COMPRESSIBLE ? null : compressedBodyBuffer.duplicate());
+   }
+
    public boolean hasHeader(final String headerName) {
       return getHeaders().containsKey(headerName);
    }
@@ -0,0 +1,106 @@
+package by.stub.cli;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ConsoleWriterTest {
+
+   private final PrintStream originalOut = System.out;
+   private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+   private final CountDownLatch writeStarted = new CountDownLatch(1);
+   private final CountDownLatch writeReleased = new CountDownLatch(1);
+
+   @Before
+   public void beforeEach() throws Exception {
+      // Console blocks on the first write, so that lines pile up in the buffer as if the console could not keep up
+      System.setOut(new PrintStream(new OutputStream() {
+         @Override
+         public void write(final int b) {
+            written.write(b);
+         }
+
+         @Override
+         public void write(final byte[] bytes, final int offset, final int length) {
+            writeStarted.countDown();
+            try {
+               writeReleased.await();
+            } catch (final InterruptedException ex) {
+               Thread.currentThread().interrupt();
+            }
+            written.write(bytes, offset, length);
+         }
+      }, true));
+   }
+
+   @After
+   public void afterEach() throws Exception {
+      writeReleased.countDown();
+      System.setOut(originalOut);
+   }
+
+   @Test
+   public void shouldDropAndCountLines_WhenBufferIsFull() throws Exception {
+      final ConsoleWriter consoleWriter = new ConsoleWriter(4);
+
+      Assert.assertTrue(consoleWriter.offer("first"));
+      Assert.assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+
+      for (int idx = 0; idx < 4; idx++) {
+         Assert.assertTrue(consoleWriter.offer("queued " + idx));
+      }
+      Assert.assertFalse(consoleWriter.offer("dropped"));
+      Assert.assertEquals(1, consoleWriter.getDropped());
+
+      writeReleased.countDown();
+      consoleWriter.flush();
+
+      final String output = written.toString("UTF-8");
+      Assert.assertTrue(output.contains("first"));
+      Assert.assertTrue(output.contains("queued 3"));
+      Assert.assertFalse(output.contains("dropped" + System.getProperty("line.separator")));
+      Assert.assertTrue(output.contains("[1 console lines dropped"));
+   }
+
+   @Test
+   public void shouldPrintLineAfterQueuedLines() throws Exception {
+      writeReleased.countDown();
+      final ConsoleWriter consoleWriter = new ConsoleWriter(16);
+
+      for (int idx = 0; idx < 8; idx++) {
+         consoleWriter.offer("queued " + idx);
+      }
+      consoleWriter.print("printed");
+
+      final String output = written.toString("UTF-8");
+      Assert.assertTrue(output.contains("queued 7"));
+      Assert.assertTrue(output.indexOf("queued 7") < output.indexOf("printed"));
+      Assert.assertEquals(0, consoleWriter.getDropped());
+   }
+
+   @Test
+   public void shouldWriteQueuedLines_WhenStoppedAndStartedAgain() throws Exception {
+      writeReleased.countDown();
+      final ConsoleWriter consoleWriter = new ConsoleWriter(16);
+
+      consoleWriter.offer("before stop");
+      consoleWriter.stop();
+      Assert.assertTrue(written.toString("UTF-8").contains("before stop"));
+
+      consoleWriter.offer("after stop");
+      final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+      while (!written.toString("UTF-8").contains("after stop") && System.currentTimeMillis() < deadline) {
+         Thread.sleep(10);
+      }
+      consoleWriter.stop();
+
+      Assert.assertTrue(written.toString("UTF-8").contains("after stop"));
+   }
+}
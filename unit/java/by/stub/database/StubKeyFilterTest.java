@@ -0,0 +1,68 @@
+package by.stub.database;
+
+import by.stub.builder.stubs.StubRequestBuilder;
+import by.stub.yaml.stubs.StubHttpLifecycle;
+import by.stub.yaml.stubs.StubResponse;
+import org.junit.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+public class StubKeyFilterTest {
+
+   private static final StubRequestBuilder BUILDER = new StubRequestBuilder();
+   private static final int STUBS = 10000;
+
+   @Test
+   public void shouldNeverFilterOutStubbedMethodAndUrl() throws Exception {
+
+      final StubKeyFilter stubKeyFilter = new StubKeyFilter(buildStubHttpLifecycles());
+
+      for (int idx = 0; idx < STUBS; idx++) {
+         assertThat(stubKeyFilter.mightContain("GET", "/api/v2/accounts/" + idx), is(true));
+         assertThat(stubKeyFilter.mightContain("POST", "/api/v2/accounts/" + idx), is(true));
+      }
+   }
+
+   @Test
+   public void shouldFilterOutMostOfNotStubbedMethodsAndUrls() throws Exception {
+
+      final StubKeyFilter stubKeyFilter = new StubKeyFilter(buildStubHttpLifecycles());
+
+      int falsePositives = 0;
+      for (int idx = 0; idx < STUBS; idx++) {
+         if (stubKeyFilter.mightContain("GET", "/api/v2/customers/" + idx)) {
+            falsePositives++;
+         }
+         if (stubKeyFilter.mightContain("PUT", "/api/v2/accounts/" + idx)) {
+            falsePositives++;
+         }
+      }
+
+      assertThat(falsePositives, is(lessThan(STUBS * 2 / 20)));
+   }
+
+   @Test
+   public void shouldNotFilterOutRequest_WhenRequestHasNoUrlOrMethod() throws Exception {
+
+      final StubKeyFilter stubKeyFilter = new StubKeyFilter(new LinkedList<StubHttpLifecycle>());
+
+      assertThat(stubKeyFilter.mightMatch(BUILDER.withMethodGet().build()), is(true));
+      assertThat(stubKeyFilter.mightMatch(BUILDER.withUrl("/api/v2/accounts/1").build()), is(true));
+      assertThat(stubKeyFilter.mightMatch(BUILDER.withUrl("/api/v2/accounts/1").withMethodGet().build()), is(false));
+   }
+
+   private static List<StubHttpLifecycle> buildStubHttpLifecycles() {
+      final List<StubHttpLifecycle> stubHttpLifecycles = new LinkedList<StubHttpLifecycle>();
+      for (int idx = 0; idx < STUBS; idx++) {
+         stubHttpLifecycles.add(new StubHttpLifecycle(
+            BUILDER.withUrl("/api/v2/accounts/" + idx).withMethodGet().withMethodPost().build(), new StubResponse()));
+      }
+
+      return stubHttpLifecycles;
+   }
+}
@@ -0,0 +1,126 @@
+package by.stub.database;
+
+import by.stub.builder.stubs.StubRequestBuilder;
+import by.stub.cli.CommandLineInterpreter;
+import by.stub.yaml.stubs.StubHttpLifecycle;
+import by.stub.yaml.stubs.StubRequest;
+import by.stub.yaml.stubs.StubResponse;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+public class StubMatcherTest {
+
+   private static final StubRequestBuilder BUILDER = new StubRequestBuilder();
+   private static final int ITERATIONS = 100000;
+
+   @BeforeClass
+   public static void beforeClass() throws Exception {
+      CommandLineInterpreter.parseCommandLine(new String[]{});
+   }
+
+   @Test
+   public void shouldMatchLikeStubRequestEquals() throws Exception {
+
+      final StubRequest[] stubbedRequests = {
+         BUILDER.withUrl("/invoice/1").withMethodGet().build(),
+         BUILDER.withUrl("/invoice/1").withMethodGet().withMethodPost().build(),
+         BUILDER.withUrl("/invoice/1").withMethodPost().withPost("some post").build(),
+         BUILDER.withUrl("/invoice/1").withMethodGet().withHeaders("content-type", "application/json").build(),
+         BUILDER.withUrl("/invoice/1").withMethodGet().withHeaders(StubRequest.AUTH_HEADER, "Basic Ym9iOnNlY3JldA==").build(),
+         BUILDER.withUrl("/invoice/1").withMethodGet().withHeaders(StubRequest.AUTH_HEADER, "Basic Ym9iOnNlY3JldA==")
+            .withHeaders("content-type", "application/json").build(),
+         BUILDER.withUrl("/invoice/1").withMethodGet().withQuery("type", "full").withQuery("id", "1").build(),
+         BUILDER.withUrl("/invoice/1").build(),
+         BUILDER.withMethodGet().build()
+      };
+
+      final StubRequest[] assertingRequests = {
+         BUILDER.withUrl("/invoice/1").withMethodGet().build(),
+         BUILDER.withUrl("/invoice/2").withMethodGet().build(),
+         BUILDER.withUrl("/invoice/1").withMethodPost().build(),
+         BUILDER.withUrl("/invoice/1").withMethodPost().withPost("some post").build(),
+         BUILDER.withUrl("/invoice/1").withMethodPost().withPost("other post").build(),
+         BUILDER.withUrl("/invoice/1").withMethodGet().withHeaders("content-type", "application/json").build(),
+         BUILDER.withUrl("/invoice/1").withMethodGet().withHeaders("content-type", "text/plain").build(),
+         BUILDER.withUrl("/invoice/1").withMethodGet().withHeaders(StubRequest.AUTH_HEADER, "Basic Ym9iOnNlY3JldA==")
+            .withHeaders("content-type", "application/json").build(),
+         BUILDER.withUrl("/invoice/1").withMethodGet().withQuery("type", "full").withQuery("id", "1").withQuery("extra", "yes").build(),
+         BUILDER.withUrl("/invoice/1").withMethodGet().withQuery("type", "full").build(),
+         BUILDER.withMethodGet().build()
+      };
+
+      for (final StubRequest stubbedRequest : stubbedRequests) {
+         final StubMatcher stubMatcher = new StubMatcher(new StubHttpLifecycle(stubbedRequest, new StubResponse()), 0);
+
+         for (final StubRequest assertingRequest : assertingRequests) {
+            final String reason = String.format("%s VS %s", stubbedRequest, assertingRequest);
+            assertThat(reason, stubMatcher.matches(assertingRequest), is(equalTo(assertingRequest.equals(stubbedRequest))));
+         }
+      }
+   }
+
+   @Test
+   public void shouldNotAllocate_WhenMatchingIncomingRequest() throws Exception {
+
+      final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+      final com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+      Assume.assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported());
+      allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+
+      final StubRequest stubbedRequest = BUILDER.withUrl("/invoice/1").withMethodPost()
+         .withPost("{\"name\": \"invoice\",\n\"amount\": 100}")
+         .withHeaders("content-type", "application/json")
+         .withQuery("type", "full").build();
+      final StubRequest assertingRequest = BUILDER.withUrl("/invoice/1").withMethodPost()
+         .withPost("{\"name\": \"invoice\",\n\"amount\": 100}")
+         .withHeaders("content-type", "application/json")
+         .withHeaders("user-agent", "stubby4j")
+         .withQuery("type", "full").build();
+
+      final StubMatcher stubMatcher = new StubMatcher(new StubHttpLifecycle(stubbedRequest, new StubResponse()), 0);
+
+      final long bytesPerEqualsMatch = measureAllocatedBytes(allocationMXBean, new Runnable() {
+         @Override
+         public void run() {
+            assertingRequest.equals(stubbedRequest);
+         }
+      });
+
+      final long bytesPerMatcherMatch = measureAllocatedBytes(allocationMXBean, new Runnable() {
+         @Override
+         public void run() {
+            stubMatcher.matches(assertingRequest);
+         }
+      });
+
+      assertThat(bytesPerEqualsMatch, is(greaterThan(bytesPerMatcherMatch)));
+      assertThat(bytesPerMatcherMatch, is(lessThan(1L)));
+   }
+
+   private static long measureAllocatedBytes(final com.sun.management.ThreadMXBean allocationMXBean, final Runnable match) {
+      final long threadId = Thread.currentThread().getId();
+
+      for (int idx = 0; idx < ITERATIONS; idx++) {
+         match.run();
+      }
+
+      final long before = allocationMXBean.getThreadAllocatedBytes(threadId);
+      for (int idx = 0; idx < ITERATIONS; idx++) {
+         match.run();
+      }
+      final long after = allocationMXBean.getThreadAllocatedBytes(threadId);
+
+      return (after - before) / ITERATIONS;
+   }
+}
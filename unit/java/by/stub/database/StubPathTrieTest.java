@@ -0,0 +1,72 @@
+package by.stub.database;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class StubPathTrieTest {
+
+   @Test
+   public void shouldFindBucket_WhenMethodAndUrlMatchExactly() throws Exception {
+
+      final StubPathTrie stubPathTrie = new StubPathTrie();
+      final StubBucket accountBucket = stubPathTrie.getOrCreateBucket("GET", "/api/v2/accounts/1");
+      final StubBucket accountsBucket = stubPathTrie.getOrCreateBucket("GET", "/api/v2/accounts");
+      final StubBucket postAccountsBucket = stubPathTrie.getOrCreateBucket("POST", "/api/v2/accounts");
+      stubPathTrie.freeze();
+
+      assertThat(stubPathTrie.findBucket("GET", "/api/v2/accounts/1"), is(sameInstance(accountBucket)));
+      assertThat(stubPathTrie.findBucket("GET", "/api/v2/accounts"), is(sameInstance(accountsBucket)));
+      assertThat(stubPathTrie.findBucket("POST", "/api/v2/accounts"), is(sameInstance(postAccountsBucket)));
+      assertThat(stubPathTrie.findBucket("PUT", "/api/v2/accounts"), is(nullValue()));
+   }
+
+   @Test
+   public void shouldNotFindBucket_WhenUrlOnlySharesPrefix() throws Exception {
+
+      final StubPathTrie stubPathTrie = new StubPathTrie();
+      stubPathTrie.getOrCreateBucket("GET", "/api/v2/accounts");
+      stubPathTrie.freeze();
+
+      assertThat(stubPathTrie.findBucket("GET", "/api/v2"), is(nullValue()));
+      assertThat(stubPathTrie.findBucket("GET", "/api/v2/accounts/"), is(nullValue()));
+      assertThat(stubPathTrie.findBucket("GET", "/api/v2//accounts"), is(nullValue()));
+      assertThat(stubPathTrie.findBucket("GET", "/api/v2/accounts/1"), is(nullValue()));
+      assertThat(stubPathTrie.findBucket("GET", "/api/v2/account"), is(nullValue()));
+      assertThat(stubPathTrie.findBucket("GET", "api/v2/accounts"), is(nullValue()));
+      assertThat(stubPathTrie.findBucket("GET", ""), is(nullValue()));
+   }
+
+   @Test
+   public void shouldFindBucket_WhenUrlHasTrailingOrRepeatedSlashes() throws Exception {
+
+      final StubPathTrie stubPathTrie = new StubPathTrie();
+      final StubBucket rootBucket = stubPathTrie.getOrCreateBucket("GET", "/");
+      final StubBucket trailingSlashBucket = stubPathTrie.getOrCreateBucket("GET", "/api/");
+      final StubBucket repeatedSlashBucket = stubPathTrie.getOrCreateBucket("GET", "/api//v2");
+      stubPathTrie.freeze();
+
+      assertThat(stubPathTrie.findBucket("GET", "/"), is(sameInstance(rootBucket)));
+      assertThat(stubPathTrie.findBucket("GET", "/api/"), is(sameInstance(trailingSlashBucket)));
+      assertThat(stubPathTrie.findBucket("GET", "/api//v2"), is(sameInstance(repeatedSlashBucket)));
+      assertThat(stubPathTrie.findBucket("GET", "/api"), is(nullValue()));
+      assertThat(stubPathTrie.findBucket("GET", "/api/v2"), is(nullValue()));
+   }
+
+   @Test
+   public void shouldFindBucket_WhenSegmentsHaveSameHashCode() throws Exception {
+
+      final StubPathTrie stubPathTrie = new StubPathTrie();
+      final StubBucket oneBucket = stubPathTrie.getOrCreateBucket("GET", "/items/Aa");
+      final StubBucket otherBucket = stubPathTrie.getOrCreateBucket("GET", "/items/BB");
+      stubPathTrie.freeze();
+
+      assertThat("Aa".hashCode(), is("BB".hashCode()));
+      assertThat(stubPathTrie.findBucket("GET", "/items/Aa"), is(sameInstance(oneBucket)));
+      assertThat(stubPathTrie.findBucket("GET", "/items/BB"), is(sameInstance(otherBucket)));
+      assertThat(stubPathTrie.findBucket("GET", "/items/C#"), is(nullValue()));
+   }
+}
@@ -3,6 +3,8 @@ package by.stub.handlers;
 import by.stub.cli.ANSITerminal;
 import by.stub.cli.CommandLineInterpreter;
 import by.stub.database.DataStore;
+import by.stub.utils.ResponseHeaders;
+import by.stub.utils.StringUtils;
 import by.stub.yaml.stubs.NotFoundStubResponse;
 import by.stub.yaml.stubs.StubRequest;
 import by.stub.yaml.stubs.StubResponse;
@@ -10,11 +12,15 @@ import by.stub.yaml.stubs.StubResponseTypes;
 import by.stub.yaml.stubs.UnauthorizedStubResponse;
 import org.eclipse.jetty.http.HttpMethods;
 import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.AsyncContinuation;
 import org.eclipse.jetty.server.Request;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import javax.servlet.ServletInputStream;
 import javax.servlet.ServletOutputStream;
@@ -24,6 +30,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
 
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -113,6 +120,7 @@ public class StubsHandlerTest {
       final String requestPathInfo = "/path/1";
 
       final NotFoundStubResponse mockStubResponse = Mockito.mock(NotFoundStubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
 
       when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.POST);
       when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
@@ -134,6 +142,7 @@ public class StubsHandlerTest {
       final String requestPathInfo = "/path/1";
 
       final NotFoundStubResponse mockStubResponse = Mockito.mock(NotFoundStubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
 
       when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.POST);
       when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
@@ -156,6 +165,159 @@ public class StubsHandlerTest {
       verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.OK_200);
    }
 
+   @Test
+   public void verifyBehaviourDuringHandlePostRequestWithMatch_WhenPostDataWasNotReadForMatching() throws Exception {
+      final String requestPathInfo = "/path/1";
+
+      final StubResponse mockStubResponse = Mockito.mock(StubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
+
+      when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.POST);
+      when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
+      when(mockStubResponse.getStatus()).thenReturn("200");
+      when(mockStubResponse.getStubResponseType()).thenReturn(StubResponseTypes.DEFAULT);
+      when(mockStubResponse.getResponseBodyBuffer()).thenReturn(ByteBuffer.wrap(new byte[]{}));
+      when(mockDataStore.findStubResponseFor(Mockito.any(StubRequest.class))).thenReturn(mockStubResponse);
+
+      final ByteArrayInputStream inputStream = new ByteArrayInputStream(new byte[100000]);
+      Mockito.when(mockHttpServletRequest.getInputStream()).thenReturn(new ServletInputStream() {
+         @Override
+         public int read() throws IOException {
+            return inputStream.read();
+         }
+      });
+
+      final StubsHandler stubsHandler = new StubsHandler(mockDataStore);
+      stubsHandler.handle(requestPathInfo, mockRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+      verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.OK_200);
+      Assert.assertEquals(0, inputStream.available());
+   }
+
+   @Test
+   public void verifyBehaviourDuringHandlePostRequest_WhenAnnouncedPostDataIsTooLarge() throws Exception {
+      final String requestPathInfo = "/path/1";
+
+      when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.POST);
+      when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
+      when(mockHttpServletRequest.getContentLength()).thenReturn(1000);
+      when(mockDataStore.findStubResponseFor(Mockito.any(StubRequest.class))).thenAnswer(new Answer<StubResponse>() {
+         @Override
+         public StubResponse answer(final InvocationOnMock invocation) throws Throwable {
+            ((StubRequest) invocation.getArguments()[0]).setBodySizeLimit(100);
+            return new NotFoundStubResponse();
+         }
+      });
+
+      final StubsHandler stubsHandler = new StubsHandler(mockDataStore);
+      stubsHandler.handle(requestPathInfo, mockRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+      verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.REQUEST_ENTITY_TOO_LARGE_413);
+      verify(mockDataStore, times(1)).countRejectedRequestBody();
+      verify(mockHttpServletRequest, never()).getInputStream();
+   }
+
+   @Test
+   public void verifyBehaviourDuringHandlePostRequest_WhenReadPostDataIsTooLarge() throws Exception {
+      final String requestPathInfo = "/path/1";
+
+      final StubResponse mockStubResponse = Mockito.mock(StubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
+
+      when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.POST);
+      when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
+      when(mockHttpServletRequest.getContentLength()).thenReturn(-1);
+      when(mockDataStore.findStubResponseFor(Mockito.any(StubRequest.class))).thenAnswer(new Answer<StubResponse>() {
+         @Override
+         public StubResponse answer(final InvocationOnMock invocation) throws Throwable {
+            ((StubRequest) invocation.getArguments()[0]).setBodySizeLimit(100);
+            ((StubRequest) invocation.getArguments()[0]).getPostBody();
+            return mockStubResponse;
+         }
+      });
+
+      final ByteArrayInputStream inputStream = new ByteArrayInputStream(new byte[1000]);
+      Mockito.when(mockHttpServletRequest.getInputStream()).thenReturn(new ServletInputStream() {
+         @Override
+         public int read() throws IOException {
+            return inputStream.read();
+         }
+      });
+
+      final StubsHandler stubsHandler = new StubsHandler(mockDataStore);
+      stubsHandler.handle(requestPathInfo, mockRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+      verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.REQUEST_ENTITY_TOO_LARGE_413);
+      verify(mockDataStore, times(1)).countRejectedRequestBody();
+      verify(mockStubResponse, never()).getResponseBodyBuffer();
+   }
+
+   @Test
+   public void verifyBehaviourDuringHandlePostRequest_WhenDiscardedPostDataIsTooLarge() throws Exception {
+      final String requestPathInfo = "/path/1";
+
+      final StubResponse mockStubResponse = Mockito.mock(StubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
+
+      when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.POST);
+      when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
+      when(mockHttpServletRequest.getContentLength()).thenReturn(-1);
+      when(mockDataStore.findStubResponseFor(Mockito.any(StubRequest.class))).thenAnswer(new Answer<StubResponse>() {
+         @Override
+         public StubResponse answer(final InvocationOnMock invocation) throws Throwable {
+            ((StubRequest) invocation.getArguments()[0]).setBodySizeLimit(100);
+            return mockStubResponse;
+         }
+      });
+
+      final ByteArrayInputStream inputStream = new ByteArrayInputStream(new byte[100000]);
+      Mockito.when(mockHttpServletRequest.getInputStream()).thenReturn(new ServletInputStream() {
+         @Override
+         public int read() throws IOException {
+            return inputStream.read();
+         }
+      });
+
+      final StubsHandler stubsHandler = new StubsHandler(mockDataStore);
+      stubsHandler.handle(requestPathInfo, mockRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+      verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.REQUEST_ENTITY_TOO_LARGE_413);
+      verify(mockDataStore, times(1)).countRejectedRequestBody();
+      verify(mockStubResponse, never()).getResponseBodyBuffer();
+      Assert.assertTrue(inputStream.available() > 0);
+   }
+
+   @Test
+   public void verifyBehaviourDuringHandlePostRequest_WhenPostDataReadForNotFoundResponseIsTooLarge() throws Exception {
+      final String requestPathInfo = "/path/1";
+
+      when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.POST);
+      when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
+      when(mockHttpServletRequest.getContentLength()).thenReturn(-1);
+      when(mockDataStore.findStubResponseFor(Mockito.any(StubRequest.class))).thenAnswer(new Answer<StubResponse>() {
+         @Override
+         public StubResponse answer(final InvocationOnMock invocation) throws Throwable {
+            ((StubRequest) invocation.getArguments()[0]).setBodySizeLimit(100);
+            return new NotFoundStubResponse();
+         }
+      });
+
+      final ByteArrayInputStream inputStream = new ByteArrayInputStream(new byte[1000]);
+      Mockito.when(mockHttpServletRequest.getInputStream()).thenReturn(new ServletInputStream() {
+         @Override
+         public int read() throws IOException {
+            return inputStream.read();
+         }
+      });
+
+      final StubsHandler stubsHandler = new StubsHandler(mockDataStore);
+      stubsHandler.handle(requestPathInfo, mockRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+      verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.REQUEST_ENTITY_TOO_LARGE_413);
+      verify(mockHttpServletResponse, never()).setStatus(HttpStatus.NOT_FOUND_404);
+      verify(mockDataStore, times(1)).countRejectedRequestBody();
+   }
+
 
    @Test
    public void verifyBehaviourDuringHandleGetRequestWithSomeResults() throws Exception {
@@ -163,6 +325,7 @@ public class StubsHandlerTest {
       final String requestPathInfo = "/path/1";
 
       final StubResponse mockStubResponse = Mockito.mock(StubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
 
       when(mockHttpServletResponse.getWriter()).thenReturn(mockPrintWriter);
       when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
@@ -170,7 +333,7 @@ public class StubsHandlerTest {
       when(mockDataStore.findStubResponseFor(Mockito.any(StubRequest.class))).thenReturn(mockStubResponse);
       when(mockStubResponse.getStubResponseType()).thenReturn(StubResponseTypes.DEFAULT);
       when(mockStubResponse.getStatus()).thenReturn("200");
-      when(mockStubResponse.getResponseBody()).thenReturn(null);
+      when(mockStubResponse.getResponseBodyBuffer()).thenReturn(null);
 
       final StubsHandler stubsHandler = new StubsHandler(mockDataStore);
       stubsHandler.handle(requestPathInfo, mockRequest, mockHttpServletRequest, mockHttpServletResponse);
@@ -235,13 +398,14 @@ public class StubsHandlerTest {
       final String requestPathInfo = "/path/1";
 
       final StubResponse mockStubResponse = Mockito.mock(StubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
 
       when(mockHttpServletResponse.getWriter()).thenReturn(mockPrintWriter);
       when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.POST);
       when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
       when(mockStubResponse.getStatus()).thenReturn("200");
       when(mockStubResponse.getStubResponseType()).thenReturn(StubResponseTypes.DEFAULT);
-      when(mockStubResponse.getResponseBody()).thenReturn(null);
+      when(mockStubResponse.getResponseBodyBuffer()).thenReturn(null);
       when(mockDataStore.findStubResponseFor(Mockito.any(StubRequest.class))).thenReturn(mockStubResponse);
 
       final InputStream inputStream = new ByteArrayInputStream(postData.getBytes());
@@ -265,6 +429,7 @@ public class StubsHandlerTest {
       final String requestPathInfo = "/path/1";
 
       final StubResponse mockStubResponse = Mockito.mock(StubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
 
       when(mockHttpServletResponse.getWriter()).thenReturn(mockPrintWriter);
       when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
@@ -273,7 +438,7 @@ public class StubsHandlerTest {
       when(mockStubResponse.getStatus()).thenReturn("200");
       when(mockStubResponse.getStubResponseType()).thenReturn(StubResponseTypes.DEFAULT);
       when(mockDataStore.findStubResponseFor(Mockito.any(StubRequest.class))).thenReturn(mockStubResponse);
-      when(mockStubResponse.getResponseBody()).thenReturn(new byte[] {});
+      when(mockStubResponse.getResponseBodyBuffer()).thenReturn(ByteBuffer.wrap(new byte[] {}));
       Mockito.when(mockHttpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
 
          @Override
@@ -296,6 +461,7 @@ public class StubsHandlerTest {
       final String requestPathInfo = "/path/1";
 
       final StubResponse mockStubResponse = Mockito.mock(StubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
 
       when(mockHttpServletRequest.getMethod()).thenReturn(method);
       when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
@@ -311,4 +477,99 @@ public class StubsHandlerTest {
       verify(mockHttpServletResponse, never()).setStatus(HttpStatus.OK_200);
       verify(mockPrintWriter, never()).println(someResultsMessage);
    }
+
+   @Test
+   public void verifyBehaviourDuringHandleGetRequestWithLatency_WhenRequestCanBeSuspended() throws Exception {
+
+      final String requestPathInfo = "/path/1";
+
+      final StubResponse mockStubResponse = Mockito.mock(StubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
+      final AsyncContinuation mockContinuation = Mockito.mock(AsyncContinuation.class);
+
+      when(mockRequest.getAsyncContinuation()).thenReturn(mockContinuation);
+      when(mockRequest.isAsyncSupported()).thenReturn(true);
+      when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
+      when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
+      when(mockDataStore.findStubResponseFor(Mockito.any(StubRequest.class))).thenReturn(mockStubResponse);
+      when(mockStubResponse.getStubResponseType()).thenReturn(StubResponseTypes.DEFAULT);
+      when(mockStubResponse.getStatus()).thenReturn("200");
+      when(mockStubResponse.getLatency()).thenReturn("5000");
+
+      final StubsHandler stubsHandler = new StubsHandler(mockDataStore);
+      final long before = System.currentTimeMillis();
+      stubsHandler.handle(requestPathInfo, mockRequest, mockHttpServletRequest, mockHttpServletResponse);
+      final long after = System.currentTimeMillis();
+
+      Assert.assertTrue((after - before) < 5000);
+
+      verify(mockContinuation, times(1)).setTimeout(5000);
+      verify(mockContinuation, times(1)).suspend();
+      verify(mockHttpServletResponse, never()).setStatus(HttpStatus.OK_200);
+   }
+
+   @Test
+   public void verifyBehaviourDuringHandleGetRequestWithLatency_WhenSuspendedRequestExpired() throws Exception {
+
+      final String requestPathInfo = "/path/1";
+
+      final StubResponse mockStubResponse = Mockito.mock(StubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
+      final AsyncContinuation mockContinuation = Mockito.mock(AsyncContinuation.class);
+
+      when(mockRequest.getAsyncContinuation()).thenReturn(mockContinuation);
+      when(mockRequest.isAsyncSupported()).thenReturn(true);
+      when(mockContinuation.isExpired()).thenReturn(true);
+      when(mockContinuation.getAttribute(Mockito.endsWith("assertionStubRequest"))).thenReturn(new StubRequest());
+      when(mockContinuation.getAttribute(Mockito.endsWith("foundStubResponse"))).thenReturn(mockStubResponse);
+      when(mockHttpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+         @Override
+         public void write(final int i) throws IOException {
+
+         }
+      });
+      when(mockStubResponse.getStubResponseType()).thenReturn(StubResponseTypes.DEFAULT);
+      when(mockStubResponse.getStatus()).thenReturn("200");
+      when(mockStubResponse.getLatency()).thenReturn("5000");
+      when(mockStubResponse.getResponseBodyBuffer()).thenReturn(ByteBuffer.wrap(new byte[]{}));
+
+      final StubsHandler stubsHandler = new StubsHandler(mockDataStore);
+      stubsHandler.handle(requestPathInfo, mockRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+      verify(mockContinuation, never()).suspend();
+      verify(mockDataStore, never()).findStubResponseFor(Mockito.any(StubRequest.class));
+      verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.OK_200);
+   }
+
+   @Test
+   public void verifyBehaviourDuringHandleGetRequestWithLatency_WhenRequestCannotBeSuspended() throws Exception {
+
+      final String requestPathInfo = "/path/1";
+
+      final StubResponse mockStubResponse = Mockito.mock(StubResponse.class);
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
+
+      when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
+      when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
+      when(mockHttpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+         @Override
+         public void write(final int i) throws IOException {
+
+         }
+      });
+      when(mockDataStore.findStubResponseFor(Mockito.any(StubRequest.class))).thenReturn(mockStubResponse);
+      when(mockStubResponse.getStubResponseType()).thenReturn(StubResponseTypes.DEFAULT);
+      when(mockStubResponse.getStatus()).thenReturn("200");
+      when(mockStubResponse.getLatency()).thenReturn("100");
+      when(mockStubResponse.getResponseBodyBuffer()).thenReturn(ByteBuffer.wrap(someResultsMessage.getBytes(StringUtils.UTF_8)));
+
+      final StubsHandler stubsHandler = new StubsHandler(mockDataStore);
+      final long before = System.currentTimeMillis();
+      stubsHandler.handle(requestPathInfo, mockRequest, mockHttpServletRequest, mockHttpServletResponse);
+      final long after = System.currentTimeMillis();
+
+      Assert.assertTrue((after - before) >= 100);
+
+      verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.OK_200);
+   }
 }
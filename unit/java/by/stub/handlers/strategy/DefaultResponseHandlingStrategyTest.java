@@ -1,9 +1,12 @@
 package by.stub.handlers.strategy;
 
+import by.stub.cli.CommandLineInterpreter;
+import by.stub.utils.CompressionUtils;
 import by.stub.utils.HandlerUtils;
-import by.stub.utils.StringUtils;
+import by.stub.utils.ResponseHeaders;
 import by.stub.yaml.stubs.StubRequest;
 import by.stub.yaml.stubs.StubResponse;
+import org.apache.commons.io.IOUtils;
 import org.eclipse.jetty.http.HttpHeaders;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.MimeTypes;
@@ -14,8 +17,11 @@ import org.mockito.Mockito;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
 
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -31,13 +37,12 @@ public class DefaultResponseHandlingStrategyTest {
    private static final StubResponse mockStubResponse = Mockito.mock(StubResponse.class);
    private static final StubRequest mockAssertionRequest = Mockito.mock(StubRequest.class);
 
-   private final String someResultsMessage = "we have results";
-
    private static StubResponseHandlingStrategy defaultResponseStubResponseHandlingStrategy;
 
    @BeforeClass
    public static void beforeClass() throws Exception {
-      defaultResponseStubResponseHandlingStrategy = new DefaultResponseHandlingStrategy(mockStubResponse);
+      defaultResponseStubResponseHandlingStrategy = new DefaultResponseHandlingStrategy();
+      when(mockStubResponse.getResponseHeaders()).thenReturn(ResponseHeaders.MAIN);
    }
 
    private void verifyMainHeaders(final HttpServletResponse mockHttpServletResponse) throws Exception {
@@ -45,7 +50,7 @@ public class DefaultResponseHandlingStrategyTest {
       verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.TEXT_HTML_UTF_8);
       verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate");
       verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.PRAGMA, "no-cache");
-      verify(mockHttpServletResponse, times(1)).setDateHeader(HttpHeaders.EXPIRES, 0);
+      verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.EXPIRES, ResponseHeaders.EXPIRES_IN_PAST);
    }
 
    @Test
@@ -54,7 +59,7 @@ public class DefaultResponseHandlingStrategyTest {
       final HttpServletResponse mockHttpServletResponse = Mockito.mock(HttpServletResponse.class);
 
       when(mockStubResponse.getStatus()).thenReturn("200");
-      when(mockStubResponse.getResponseBody()).thenReturn(new byte[]{});
+      when(mockStubResponse.getResponseBodyBuffer()).thenReturn(ByteBuffer.wrap(new byte[]{}));
       Mockito.when(mockHttpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
 
          @Override
@@ -63,7 +68,7 @@ public class DefaultResponseHandlingStrategyTest {
          }
       });
 
-      defaultResponseStubResponseHandlingStrategy.handle(mockHttpServletResponse, mockAssertionRequest);
+      defaultResponseStubResponseHandlingStrategy.handle(mockHttpServletResponse, mockAssertionRequest, mockStubResponse);
 
       verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.OK_200);
       verifyMainHeaders(mockHttpServletResponse);
@@ -75,7 +80,7 @@ public class DefaultResponseHandlingStrategyTest {
       final HttpServletResponse mockHttpServletResponse = Mockito.mock(HttpServletResponse.class);
 
       when(mockStubResponse.getStatus()).thenReturn("200");
-      when(mockStubResponse.getResponseBody()).thenReturn(new byte[]{});
+      when(mockStubResponse.getResponseBodyBuffer()).thenReturn(ByteBuffer.wrap(new byte[]{}));
       when(mockStubResponse.getLatency()).thenReturn("100");
 
       Mockito.when(mockHttpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
@@ -87,36 +92,65 @@ public class DefaultResponseHandlingStrategyTest {
       });
 
 
-      defaultResponseStubResponseHandlingStrategy.handle(mockHttpServletResponse, mockAssertionRequest);
+      defaultResponseStubResponseHandlingStrategy.handle(mockHttpServletResponse, mockAssertionRequest, mockStubResponse);
 
       verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.OK_200);
       verifyMainHeaders(mockHttpServletResponse);
    }
 
    @Test
-   public void shouldCheckLatencyDelayWhenHandlingDefaultResponseWithLatency() throws Exception {
+   public void shouldWriteDirectResponseBody_WhenOutputStreamIsNotConnectorOutput() throws Exception {
 
-      final PrintWriter mockPrintWriter = Mockito.mock(PrintWriter.class);
       final HttpServletResponse mockHttpServletResponse = Mockito.mock(HttpServletResponse.class);
+      final ByteArrayOutputStream writtenBody = new ByteArrayOutputStream();
+      final ByteBuffer mappedBody = ByteBuffer.allocateDirect(3);
+      mappedBody.put(new byte[]{1, 2, 3}).flip();
 
       when(mockStubResponse.getStatus()).thenReturn("200");
-      when(mockHttpServletResponse.getWriter()).thenReturn(mockPrintWriter);
-      when(mockStubResponse.getResponseBody()).thenReturn(someResultsMessage.getBytes(StringUtils.UTF_8));
-      when(mockStubResponse.getLatency()).thenReturn("100");
+      when(mockStubResponse.getResponseBodyBuffer()).thenReturn(mappedBody);
+      when(mockStubResponse.getLatency()).thenReturn(null);
       Mockito.when(mockHttpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
 
          @Override
          public void write(final int i) throws IOException {
-
+            writtenBody.write(i);
          }
       });
 
-      long before = System.currentTimeMillis();
-      defaultResponseStubResponseHandlingStrategy.handle(mockHttpServletResponse, mockAssertionRequest);
-      long after = System.currentTimeMillis();
+      defaultResponseStubResponseHandlingStrategy.handle(mockHttpServletResponse, mockAssertionRequest, mockStubResponse);
 
-      Assert.assertTrue((after - before) >= 100);
+      Assert.assertArrayEquals(new byte[]{1, 2, 3}, writtenBody.toByteArray());
+   }
 
-      verifyMainHeaders(mockHttpServletResponse);
+   @Test
+   public void shouldSendCompressedBody_WhenCompressionEnabledAndAccepted() throws Exception {
+
+      CommandLineInterpreter.parseCommandLine(new String[]{"--compress"});
+
+      final StubResponse stubResponse = new StubResponse();
+      stubResponse.setBody("{\"name\": \"invoice\", \"amount\": 100, \"currency\": \"AUD\", \"name\": \"invoice\"}");
+      final StubRequest assertionRequest = new StubRequest();
+      assertionRequest.getHeaders().put("accept-encoding", "gzip, deflate");
+
+      final HttpServletResponse mockHttpServletResponse = Mockito.mock(HttpServletResponse.class);
+      final ByteArrayOutputStream writtenBody = new ByteArrayOutputStream();
+      Mockito.when(mockHttpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+
+         @Override
+         public void write(final int i) throws IOException {
+            writtenBody.write(i);
+         }
+      });
+
+      try {
+         new DefaultResponseHandlingStrategy().handle(mockHttpServletResponse, assertionRequest, stubResponse);
+      } finally {
+         CommandLineInterpreter.parseCommandLine(new String[]{});
+      }
+
+      verify(mockHttpServletResponse, times(1)).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+      verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.CONTENT_ENCODING, CompressionUtils.GZIP);
+      Assert.assertArrayEquals(stubResponse.getResponseBody(),
+         IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(writtenBody.toByteArray()))));
    }
 }
@@ -45,4 +45,24 @@ public class HandlingStrategyFactoryTest {
       final StubResponseHandlingStrategy stubResponseHandlingStrategy = HandlingStrategyFactory.identifyHandlingStrategyFor(stubResponse);
       Assert.assertTrue(stubResponseHandlingStrategy instanceof RedirectResponseHandlingStrategy);
    }
+
+   @Test
+   public void shouldIdentifySameResponseStrategy_WhenIdentifiedForDifferentResponsesOfSameType() throws Exception {
+      final StubResponseHandlingStrategy stubResponseHandlingStrategy = HandlingStrategyFactory.identifyHandlingStrategyFor(new StubResponse());
+
+      Assert.assertSame(stubResponseHandlingStrategy, HandlingStrategyFactory.identifyHandlingStrategyFor(new StubResponse()));
+   }
+
+   @Test
+   public void shouldIdentifySameResponseStrategy_WhenIdentifiedAgainForEveryResponseType() throws Exception {
+      final StubResponse[] stubResponses = {
+         new StubResponse(), new NotFoundStubResponse(), new UnauthorizedStubResponse(), new RedirectStubResponse()
+      };
+
+      for (final StubResponse stubResponse : stubResponses) {
+         final StubResponseHandlingStrategy stubResponseHandlingStrategy = HandlingStrategyFactory.identifyHandlingStrategyFor(stubResponse);
+
+         Assert.assertSame(stubResponseHandlingStrategy, HandlingStrategyFactory.identifyHandlingStrategyFor(stubResponse));
+      }
+   }
 }
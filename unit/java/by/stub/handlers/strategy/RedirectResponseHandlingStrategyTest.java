@@ -1,6 +1,7 @@
 package by.stub.handlers.strategy;
 
 import by.stub.utils.HandlerUtils;
+import by.stub.utils.ResponseHeaders;
 import by.stub.yaml.stubs.StubRequest;
 import by.stub.yaml.stubs.StubResponse;
 import org.eclipse.jetty.http.HttpHeaders;
@@ -31,7 +32,7 @@ public class RedirectResponseHandlingStrategyTest {
 
    @BeforeClass
    public static void beforeClass() throws Exception {
-      redirectResponseStubResponseHandlingStrategy = new RedirectResponseHandlingStrategy(mockStubResponse);
+      redirectResponseStubResponseHandlingStrategy = new RedirectResponseHandlingStrategy();
    }
 
    private void verifyMainHeaders(final HttpServletResponse mockHttpServletResponse) throws Exception {
@@ -39,7 +40,7 @@ public class RedirectResponseHandlingStrategyTest {
       verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.TEXT_HTML_UTF_8);
       verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate");
       verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.PRAGMA, "no-cache");
-      verify(mockHttpServletResponse, times(1)).setDateHeader(HttpHeaders.EXPIRES, 0);
+      verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.EXPIRES, ResponseHeaders.EXPIRES_IN_PAST);
    }
 
    @Test
@@ -51,7 +52,7 @@ public class RedirectResponseHandlingStrategyTest {
       when(mockStubResponse.getStatus()).thenReturn("301");
       when(mockHttpServletResponse.getWriter()).thenReturn(mockPrintWriter);
 
-      redirectResponseStubResponseHandlingStrategy.handle(mockHttpServletResponse, mockAssertionRequest);
+      redirectResponseStubResponseHandlingStrategy.handle(mockHttpServletResponse, mockAssertionRequest, mockStubResponse);
 
       verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.MOVED_PERMANENTLY_301);
       verify(mockHttpServletResponse, times(1)).setStatus(Integer.parseInt(mockStubResponse.getStatus()));
@@ -70,7 +71,7 @@ public class RedirectResponseHandlingStrategyTest {
       when(mockHttpServletResponse.getWriter()).thenReturn(mockPrintWriter);
       when(mockStubResponse.getLatency()).thenReturn("100");
 
-      redirectResponseStubResponseHandlingStrategy.handle(mockHttpServletResponse, mockAssertionRequest);
+      redirectResponseStubResponseHandlingStrategy.handle(mockHttpServletResponse, mockAssertionRequest, mockStubResponse);
 
       verify(mockHttpServletResponse, times(1)).setStatus(HttpStatus.MOVED_PERMANENTLY_301);
       verify(mockHttpServletResponse, times(1)).setStatus(Integer.parseInt(mockStubResponse.getStatus()));
@@ -0,0 +1,75 @@
+package by.stub.server;
+
+import by.stub.cli.CommandLineInterpreter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class JettySettingsTest {
+
+   @Test
+   public void shouldReturnDefaultValue_WhenSettingNotGiven() throws Exception {
+      final JettySettings jettySettings = new JettySettings(new HashMap<String, String>(), new HashMap<String, Object>());
+
+      Assert.assertEquals(254, jettySettings.getServerSetting(CommandLineInterpreter.OPTION_MAX_THREADS, 254));
+      Assert.assertEquals(2, jettySettings.getConnectorSetting(CommandLineInterpreter.OPTION_SSLPORT, CommandLineInterpreter.OPTION_ACCEPTORS, 2));
+   }
+
+   @Test
+   public void shouldPreferConnectorYamlSetting_OverCommonYamlSetting() throws Exception {
+      final Map<String, Object> sslSettings = new HashMap<String, Object>();
+      sslSettings.put(CommandLineInterpreter.OPTION_ACCEPTORS, "4");
+
+      final Map<String, Object> yamlSettings = new HashMap<String, Object>();
+      yamlSettings.put(CommandLineInterpreter.OPTION_ACCEPTORS, "2");
+      yamlSettings.put(CommandLineInterpreter.OPTION_SSLPORT, sslSettings);
+
+      final JettySettings jettySettings = new JettySettings(new HashMap<String, String>(), yamlSettings);
+
+      Assert.assertEquals(4, jettySettings.getConnectorSetting(CommandLineInterpreter.OPTION_SSLPORT, CommandLineInterpreter.OPTION_ACCEPTORS, 1));
+      Assert.assertEquals(2, jettySettings.getConnectorSetting(CommandLineInterpreter.OPTION_CLIENTPORT, CommandLineInterpreter.OPTION_ACCEPTORS, 1));
+   }
+
+   @Test
+   public void shouldPreferCommandLineArg_OverYamlSettings() throws Exception {
+      final Map<String, Object> sslSettings = new HashMap<String, Object>();
+      sslSettings.put(CommandLineInterpreter.OPTION_IDLE_TIME, "1000");
+
+      final Map<String, Object> yamlSettings = new HashMap<String, Object>();
+      yamlSettings.put(CommandLineInterpreter.OPTION_MIN_THREADS, "10");
+      yamlSettings.put(CommandLineInterpreter.OPTION_SSLPORT, sslSettings);
+
+      final Map<String, String> commandLineArgs = new HashMap<String, String>();
+      commandLineArgs.put(CommandLineInterpreter.OPTION_MIN_THREADS, "20");
+      commandLineArgs.put(CommandLineInterpreter.OPTION_IDLE_TIME, "3000");
+
+      final JettySettings jettySettings = new JettySettings(commandLineArgs, yamlSettings);
+
+      Assert.assertEquals(20, jettySettings.getServerSetting(CommandLineInterpreter.OPTION_MIN_THREADS, 8));
+      Assert.assertEquals(3000, jettySettings.getConnectorSetting(CommandLineInterpreter.OPTION_SSLPORT, CommandLineInterpreter.OPTION_IDLE_TIME, 45000));
+   }
+
+   @Test
+   public void shouldPreferConnectorCommandLineArg_OverCommonCommandLineArg() throws Exception {
+      final Map<String, Object> sslSettings = new HashMap<String, Object>();
+      sslSettings.put(JettySettings.SESSION_CACHE, "100");
+
+      final Map<String, Object> yamlSettings = new HashMap<String, Object>();
+      yamlSettings.put(CommandLineInterpreter.OPTION_SSLPORT, sslSettings);
+
+      final Map<String, String> commandLineArgs = new HashMap<String, String>();
+      commandLineArgs.put(CommandLineInterpreter.OPTION_ACCEPTORS, "2");
+      commandLineArgs.put(CommandLineInterpreter.OPTION_SSL_ACCEPTORS, "6");
+
+      final JettySettings jettySettings = new JettySettings(commandLineArgs, yamlSettings);
+
+      Assert.assertEquals(6, jettySettings.getConnectorSetting(CommandLineInterpreter.OPTION_SSLPORT, CommandLineInterpreter.OPTION_ACCEPTORS, 1));
+      Assert.assertEquals(2, jettySettings.getConnectorSetting(CommandLineInterpreter.OPTION_ADMINPORT, CommandLineInterpreter.OPTION_ACCEPTORS, 1));
+      Assert.assertEquals(100, jettySettings.getConnectorSetting(CommandLineInterpreter.OPTION_SSLPORT, JettySettings.SESSION_CACHE, -1));
+
+      commandLineArgs.put(CommandLineInterpreter.OPTION_SSL_SESSION_CACHE, "200");
+      Assert.assertEquals(200, jettySettings.getConnectorSetting(CommandLineInterpreter.OPTION_SSLPORT, JettySettings.SESSION_CACHE, -1));
+   }
+}
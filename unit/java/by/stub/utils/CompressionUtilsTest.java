@@ -0,0 +1,54 @@
+package by.stub.utils;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class CompressionUtilsTest {
+
+   @Test
+   public void shouldNegotiateGzip_WhenGzipAndDeflateEquallyAccepted() throws Exception {
+
+      assertThat(CompressionUtils.negotiateContentEncoding("deflate, gzip"), is(equalTo(CompressionUtils.GZIP)));
+      assertThat(CompressionUtils.negotiateContentEncoding("gzip,deflate,sdch"), is(equalTo(CompressionUtils.GZIP)));
+      assertThat(CompressionUtils.negotiateContentEncoding("*"), is(equalTo(CompressionUtils.GZIP)));
+   }
+
+   @Test
+   public void shouldNegotiateEncodingWithHighestQuality() throws Exception {
+
+      assertThat(CompressionUtils.negotiateContentEncoding("gzip;q=0.5, deflate"), is(equalTo(CompressionUtils.DEFLATE)));
+      assertThat(CompressionUtils.negotiateContentEncoding("deflate; q=0.2, *;q=0.3"), is(equalTo(CompressionUtils.GZIP)));
+      assertThat(CompressionUtils.negotiateContentEncoding("GZIP, , identity"), is(equalTo(CompressionUtils.GZIP)));
+   }
+
+   @Test
+   public void shouldNotNegotiateEncoding_WhenCompressionNotAccepted() throws Exception {
+
+      assertThat(CompressionUtils.negotiateContentEncoding(null), is(nullValue()));
+      assertThat(CompressionUtils.negotiateContentEncoding("identity"), is(nullValue()));
+      assertThat(CompressionUtils.negotiateContentEncoding("gzip;q=0, deflate;q=0"), is(nullValue()));
+      assertThat(CompressionUtils.negotiateContentEncoding("*;q=0"), is(nullValue()));
+      assertThat(CompressionUtils.negotiateContentEncoding("br"), is(nullValue()));
+   }
+
+   @Test
+   public void shouldCompressContent_WithGivenEncoding() throws Exception {
+
+      final byte[] content = "{\"name\": \"invoice\", \"amount\": 100}".getBytes(StringUtils.UTF_8);
+
+      final byte[] gzipped = CompressionUtils.compress(content, 0, content.length, CompressionUtils.GZIP);
+      final byte[] deflated = CompressionUtils.compress(content, 0, content.length, CompressionUtils.DEFLATE);
+
+      assertThat(IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(gzipped))), is(equalTo(content)));
+      assertThat(IOUtils.toByteArray(new InflaterInputStream(new ByteArrayInputStream(deflated))), is(equalTo(content)));
+   }
+}
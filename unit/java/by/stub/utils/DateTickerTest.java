@@ -0,0 +1,48 @@
+package by.stub.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class DateTickerTest {
+
+   @Test
+   public void shouldFormatConsoleTime() throws Exception {
+
+      assertThat(DateTicker.getConsoleTime().matches("\\d{2}:\\d{2}:\\d{2}"), is(equalTo(true)));
+   }
+
+   @Test
+   public void shouldRefreshDate_WhenSecondHasPassed() throws Exception {
+
+      DateTicker.start();
+      try {
+         final String consoleTime = DateTicker.getConsoleTime();
+         final String headerDate = DateTicker.getHeaderDate();
+
+         TimeUnit.MILLISECONDS.sleep(1500);
+
+         assertThat(DateTicker.getConsoleTime(), is(not(equalTo(consoleTime))));
+         assertThat(DateTicker.getHeaderDate(), is(not(equalTo(headerDate))));
+      } finally {
+         DateTicker.stop();
+      }
+   }
+
+   @Test
+   public void shouldRefreshDate_WhenTickerIsStopped() throws Exception {
+
+      DateTicker.start();
+      DateTicker.stop();
+      final String consoleTime = DateTicker.getConsoleTime();
+
+      TimeUnit.MILLISECONDS.sleep(1500);
+
+      assertThat(DateTicker.getConsoleTime(), is(not(equalTo(consoleTime))));
+   }
+}
@@ -0,0 +1,135 @@
+package by.stub.utils;
+
+import by.stub.cli.CommandLineInterpreter;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class FileContentCacheTest {
+
+   private static File dataDirectory;
+
+   @BeforeClass
+   public static void beforeClass() throws Exception {
+      dataDirectory = File.createTempFile("stubby4j", "data");
+      dataDirectory.delete();
+      dataDirectory.mkdir();
+
+      writeFile("one.bin", 10);
+      writeFile("two.bin", 10);
+      writeFile("three.bin", 10);
+      writeFile("huge.bin", 100);
+
+      CommandLineInterpreter.parseCommandLine(new String[]{"--data", new File(dataDirectory, "stubs.yaml").getAbsolutePath()});
+   }
+
+   @AfterClass
+   public static void afterClass() throws Exception {
+      for (final File file : dataDirectory.listFiles()) {
+         file.delete();
+      }
+      dataDirectory.delete();
+      CommandLineInterpreter.parseCommandLine(new String[]{});
+   }
+
+   @Test
+   public void shouldLoadFileOnce_WhenFileRequestedAgain() throws Exception {
+
+      final FileContentCache fileContentCache = new FileContentCache(50);
+
+      final byte[] loadedContent = fileContentCache.get("one.bin");
+      final byte[] cachedContent = fileContentCache.get("one.bin");
+
+      assertThat(cachedContent, is(sameInstance(loadedContent)));
+      assertThat(loadedContent.length, is(equalTo(10)));
+      assertThat(fileContentCache.getHits(), is(equalTo(1L)));
+      assertThat(fileContentCache.getMisses(), is(equalTo(1L)));
+      assertThat(fileContentCache.getSizeBytes(), is(equalTo(10L)));
+   }
+
+   @Test
+   public void shouldEvictLeastRecentlyUsedFile_WhenBudgetExceeded() throws Exception {
+
+      final FileContentCache fileContentCache = new FileContentCache(20);
+
+      fileContentCache.get("one.bin");
+      fileContentCache.get("two.bin");
+      fileContentCache.get("one.bin");
+      fileContentCache.get("three.bin");
+
+      assertThat(fileContentCache.getEvictions(), is(equalTo(1L)));
+      assertThat(fileContentCache.getEntries(), is(equalTo(2)));
+      assertThat(fileContentCache.getSizeBytes(), is(equalTo(20L)));
+
+      fileContentCache.get("one.bin");
+      fileContentCache.get("two.bin");
+
+      assertThat(fileContentCache.getHits(), is(equalTo(2L)));
+      assertThat(fileContentCache.getMisses(), is(equalTo(4L)));
+   }
+
+   @Test
+   public void shouldNotCacheFile_WhenFileExceedsWholeBudget() throws Exception {
+
+      final FileContentCache fileContentCache = new FileContentCache(50);
+
+      fileContentCache.get("one.bin");
+      final byte[] loadedContent = fileContentCache.get("huge.bin");
+
+      assertThat(loadedContent.length, is(equalTo(100)));
+      assertThat(fileContentCache.getEntries(), is(equalTo(1)));
+      assertThat(fileContentCache.getEvictions(), is(equalTo(0L)));
+   }
+
+   @Test
+   public void shouldEmptyCache_WhenCleared() throws Exception {
+
+      final FileContentCache fileContentCache = new FileContentCache(50);
+
+      fileContentCache.get("one.bin");
+      fileContentCache.clear();
+      fileContentCache.get("one.bin");
+
+      assertThat(fileContentCache.getMisses(), is(equalTo(2L)));
+      assertThat(fileContentCache.getSizeBytes(), is(equalTo(10L)));
+   }
+
+   @Test
+   public void shouldKeepCachedContent_WhenEmptyCopyIsUsed() throws Exception {
+
+      final FileContentCache fileContentCache = new FileContentCache(50);
+      fileContentCache.get("one.bin");
+
+      final FileContentCache emptyCopy = fileContentCache.emptyCopy();
+      emptyCopy.get("one.bin");
+
+      assertThat(fileContentCache.getEntries(), is(equalTo(1)));
+      assertThat(emptyCopy.getEntries(), is(equalTo(1)));
+      assertThat(emptyCopy.getCapacityBytes(), is(equalTo(50L)));
+      assertThat(emptyCopy.getMisses(), is(equalTo(2L)));
+   }
+
+   @Test(expected = IOException.class)
+   public void shouldThrowIOException_WhenFileDoesNotExist() throws Exception {
+
+      new FileContentCache(50).get("missing.bin");
+   }
+
+   private static void writeFile(final String filename, final int size) throws IOException {
+      final FileOutputStream out = new FileOutputStream(new File(dataDirectory, filename));
+      try {
+         out.write(new byte[size]);
+      } finally {
+         out.close();
+      }
+   }
+}
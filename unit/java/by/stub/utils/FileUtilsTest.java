@@ -0,0 +1,37 @@
+package by.stub.utils;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class FileUtilsTest {
+
+   private static final String SEPARATOR = FileUtils.LINE_SEPARATOR;
+
+   @Test
+   public void shouldEnforceSystemLineSeparator_WhenContentHasMixedLineSeparators() throws Exception {
+
+      final String originalContent = "one\r\ntwo\rthree\nfour\n\r\r\nfive";
+      final String expectedContent = String.format("one%stwo%sthree%sfour%s%s%sfive", SEPARATOR, SEPARATOR, SEPARATOR, SEPARATOR, SEPARATOR, SEPARATOR);
+
+      assertThat(FileUtils.enforceSystemLineSeparator(originalContent), is(equalTo(expectedContent)));
+   }
+
+   @Test
+   public void shouldReturnSameContent_WhenContentHasSystemLineSeparatorsOnly() throws Exception {
+
+      final String originalContent = String.format("one%stwo%sthree", SEPARATOR, SEPARATOR);
+
+      assertThat(FileUtils.enforceSystemLineSeparator(originalContent), is(sameInstance(originalContent)));
+   }
+
+   @Test
+   public void shouldReturnEmptyContent_WhenContentIsNotSet() throws Exception {
+
+      assertThat(FileUtils.enforceSystemLineSeparator(null), is(equalTo("")));
+      assertThat(FileUtils.enforceSystemLineSeparator(" \r\n "), is(equalTo("")));
+   }
+}
@@ -1,11 +1,19 @@
 package by.stub.utils;
 
+import by.stub.cli.CommandLineInterpreter;
 import org.eclipse.jetty.http.HttpSchemes;
 import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.when;
 
 /**
  * @author Alexander Zagniotov
@@ -49,4 +57,24 @@ public class HandlerUtilsTest {
 
       assertThat(actualLinkified, is(equalTo(expectedLinkified)));
    }
+
+   @Test
+   public void shouldExtractWholePostBody_RegardlessOfRequestBodyLimits() throws Exception {
+      CommandLineInterpreter.parseCommandLine(new String[]{"--maxbody", "32", "--hashbody", "16"});
+
+      final String yaml = "-  request:\n      method: GET\n      url: /some/uri\n   response:\n      status: 200";
+      final ByteArrayInputStream inputStream = new ByteArrayInputStream(yaml.getBytes(StringUtils.utf8Charset()));
+
+      final HttpServletRequest mockRequest = Mockito.mock(HttpServletRequest.class);
+      when(mockRequest.getMethod()).thenReturn("POST");
+      when(mockRequest.getContentLength()).thenReturn(-1);
+      when(mockRequest.getInputStream()).thenReturn(new ServletInputStream() {
+         @Override
+         public int read() throws IOException {
+            return inputStream.read();
+         }
+      });
+
+      assertThat(HandlerUtils.extractPostRequestBody(mockRequest, "admin"), is(equalTo(yaml)));
+   }
 }
@@ -1,6 +1,7 @@
 package by.stub.utils;
 
 import by.stub.yaml.stubs.StubRequest;
+import by.stub.yaml.stubs.StubResponse;
 import org.junit.Test;
 
 import java.util.Map;
@@ -19,7 +20,7 @@ public class ReflectionUtilsTest {
 
    @Test
    public void shouldGetObjectPropertiesAndValues() throws Exception {
-      final int totalOfStubRequestMemberFields = 6;
+      final int totalOfStubRequestMemberFields = 7;
       final StubRequest stubRequest = new StubRequest();
       stubRequest.setMethod("POST");
       final Map<String, String> properties = ReflectionUtils.getProperties(stubRequest);
@@ -31,6 +32,19 @@ public class ReflectionUtilsTest {
       assertThat("{}", is(equalTo(properties.get("headers"))));
    }
 
+   @Test
+   public void shouldSkipDerivedProperties_WhenGettingStubResponseProperties() throws Exception {
+      final int totalOfStubResponseMemberFields = 5;
+      final StubResponse stubResponse = new StubResponse();
+      stubResponse.setBody("OK");
+      stubResponse.precompute();
+      final Map<String, String> properties = ReflectionUtils.getProperties(stubResponse);
+
+      assertThat(totalOfStubResponseMemberFields, is(equalTo(properties.size())));
+      assertThat("OK", is(equalTo(properties.get("body"))));
+      assertThat(properties.containsKey("responsebodybuffer"), is(equalTo(false)));
+   }
+
    @Test
    public void shouldSetValueOnObjectProperty_WhenCorrectPropertyNameGiven() throws Exception {
       final StubRequest stubRequest = new StubRequest();
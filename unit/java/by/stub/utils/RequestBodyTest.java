@@ -0,0 +1,164 @@
+package by.stub.utils;
+
+import by.stub.exception.RequestBodyTooLargeException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class RequestBodyTest {
+
+   @Test
+   public void shouldDecodeTrimmedContent_WhenBodyRead() throws Exception {
+
+      final RequestBody requestBody = read("  {\"name\": \"invoice\"}\r\n", 0, RequestBody.UNLIMITED);
+
+      assertThat(requestBody.getContent(), is(equalTo("{\"name\": \"invoice\"}")));
+      assertThat(requestBody.getLength(), is(equalTo(23)));
+   }
+
+   @Test
+   public void shouldComputeSameContentHash_WhenBodiesDifferInLineSeparatorsAndSurroundingWhitespace() throws Exception {
+
+      final long unixHash = read("{\n\"name\": \"invoice\"\n}", 0, RequestBody.UNLIMITED).getContentHash();
+      final long windowsHash = read("\r\n {\r\n\"name\": \"invoice\"\r\n}\r\n\t", 0, RequestBody.UNLIMITED).getContentHash();
+      final long macHash = read("{\r\"name\": \"invoice\"\r}", 0, RequestBody.UNLIMITED).getContentHash();
+
+      assertThat(windowsHash, is(equalTo(unixHash)));
+      assertThat(macHash, is(equalTo(unixHash)));
+      assertThat(RequestBody.contentHashOf(FileUtils.enforceSystemLineSeparator("{\r\n\"name\": \"invoice\"\r\n}")), is(equalTo(unixHash)));
+   }
+
+   @Test
+   public void shouldComputeDifferentContentHash_WhenInnerWhitespaceDiffers() throws Exception {
+
+      final long hash = read("{\"name\": \"invoice\"}", 0, RequestBody.UNLIMITED).getContentHash();
+
+      assertThat(read("{\"name\":  \"invoice\"}", 0, RequestBody.UNLIMITED).getContentHash(), is(not(equalTo(hash))));
+      assertThat(read("{\"name\":\n\n\"invoice\"}", 0, RequestBody.UNLIMITED).getContentHash(),
+         is(not(equalTo(read("{\"name\":\n\"invoice\"}", 0, RequestBody.UNLIMITED).getContentHash()))));
+   }
+
+   @Test
+   public void shouldComputeSameContentHash_WhenBodyArrivesByteByByte() throws Exception {
+
+      final StringBuilder builder = new StringBuilder();
+      for (int idx = 0; idx < 5000; idx++) {
+         builder.append("line ").append(idx).append("\r\n");
+      }
+      final String content = builder.toString();
+
+      final RequestBody requestBody = RequestBody.read(new OneByteInputStream(content.getBytes(StringUtils.UTF_8)), 0, RequestBody.UNLIMITED);
+
+      assertThat(requestBody.getContent(), is(equalTo(content.trim())));
+      assertThat(requestBody.getContentHash(), is(equalTo(RequestBody.contentHashOf(content))));
+   }
+
+   @Test
+   public void shouldComputeSameContentHash_WhenWhitespaceRunsAcrossChunks() throws Exception {
+
+      final StringBuilder whitespace = new StringBuilder();
+      for (int idx = 0; idx < 10000; idx++) {
+         whitespace.append(" \r\n\t\r");
+      }
+      final String content = "some" + whitespace + "post";
+
+      final RequestBody requestBody = RequestBody.read(new OneByteInputStream((content + whitespace).getBytes(StringUtils.UTF_8)), 0, RequestBody.UNLIMITED, 16);
+
+      assertThat(requestBody.isHashOnly(), is(true));
+      assertThat(requestBody.getContentHash(), is(equalTo(RequestBody.contentHashOf(content))));
+      assertThat(requestBody.getContentHash(), is(not(equalTo(RequestBody.contentHashOf("some post")))));
+   }
+
+   @Test
+   public void shouldReadBody_WhenContentLengthKnown() throws Exception {
+
+      final RequestBody requestBody = read("some post", 9, 9);
+
+      assertThat(requestBody.getContent(), is(equalTo("some post")));
+      assertThat(requestBody.getContentHash(), is(equalTo(RequestBody.contentHashOf("some post"))));
+   }
+
+   @Test(expected = IOException.class)
+   public void shouldThrowIOException_WhenContentLengthExceedsMaxSize() throws Exception {
+
+      read("some post", 9, 8);
+   }
+
+   @Test(expected = IOException.class)
+   public void shouldThrowIOException_WhenBodyOfUnknownLengthExceedsMaxSize() throws Exception {
+
+      read("some post", 0, 8);
+   }
+
+   @Test
+   public void shouldReadBody_WhenBodyOfUnknownLengthHasMaxSize() throws Exception {
+
+      assertThat(read("some post", 0, 9).getContent(), is(equalTo("some post")));
+   }
+
+   @Test
+   public void shouldOnlyHashBody_WhenBodyOfUnknownLengthExceedsHashOnlySize() throws Exception {
+
+      final String content = "\r\n{\r\n\"name\": \"invoice\",\r\n\"amount\": 100\r\n}\r\n";
+      final RequestBody requestBody = RequestBody.read(new OneByteInputStream(content.getBytes(StringUtils.UTF_8)), 0, RequestBody.UNLIMITED, 8);
+
+      assertThat(requestBody.isHashOnly(), is(equalTo(true)));
+      assertThat(requestBody.getContent(), is(equalTo("")));
+      assertThat(requestBody.getLength(), is(equalTo(content.length())));
+      assertThat(requestBody.getContentHash(), is(equalTo(RequestBody.contentHashOf("{\n\"name\": \"invoice\",\n\"amount\": 100\n}"))));
+   }
+
+   @Test
+   public void shouldOnlyHashBody_WhenContentLengthExceedsHashOnlySize() throws Exception {
+
+      final RequestBody requestBody = RequestBody.read(new ByteArrayInputStream("some post".getBytes(StringUtils.UTF_8)), 9, RequestBody.UNLIMITED, 8);
+
+      assertThat(requestBody.isHashOnly(), is(equalTo(true)));
+      assertThat(requestBody.getContentHash(), is(equalTo(RequestBody.contentHashOf("some post"))));
+   }
+
+   @Test
+   public void shouldKeepBody_WhenBodyOfUnknownLengthHasHashOnlySize() throws Exception {
+
+      final RequestBody requestBody = RequestBody.read(new ByteArrayInputStream("some post".getBytes(StringUtils.UTF_8)), 0, RequestBody.UNLIMITED, 9);
+
+      assertThat(requestBody.isHashOnly(), is(equalTo(false)));
+      assertThat(requestBody.getContent(), is(equalTo("some post")));
+   }
+
+   @Test(expected = RequestBodyTooLargeException.class)
+   public void shouldThrowRequestBodyTooLargeException_WhenHashedBodyExceedsMaxSize() throws Exception {
+
+      RequestBody.read(new ByteArrayInputStream("some longer post".getBytes(StringUtils.UTF_8)), 0, 12, 8);
+   }
+
+   private static RequestBody read(final String content, final int contentLength, final int maxSize) throws IOException {
+      return RequestBody.read(new ByteArrayInputStream(content.getBytes(StringUtils.UTF_8)), contentLength, maxSize);
+   }
+
+   private static final class OneByteInputStream extends InputStream {
+
+      private final InputStream inputStream;
+
+      private OneByteInputStream(final byte[] content) {
+         this.inputStream = new ByteArrayInputStream(content);
+      }
+
+      @Override
+      public int read() throws IOException {
+         return inputStream.read();
+      }
+
+      @Override
+      public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+         return inputStream.read(bytes, offset, Math.min(1, length));
+      }
+   }
+}
@@ -0,0 +1,87 @@
+package by.stub.utils;
+
+import org.eclipse.jetty.http.HttpHeaders;
+import org.eclipse.jetty.http.MimeTypes;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ResponseHeadersTest {
+
+   @Test
+   public void shouldWriteMainHeaders_WhenNoHeadersStubbed() throws Exception {
+
+      final HttpServletResponse mockHttpServletResponse = Mockito.mock(HttpServletResponse.class);
+
+      ResponseHeaders.compile(null).writeTo(mockHttpServletResponse);
+
+      verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.SERVER, HandlerUtils.constructHeaderServerName());
+      verify(mockHttpServletResponse, times(1)).setHeader(eq(HttpHeaders.DATE), anyString());
+      verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.TEXT_HTML_UTF_8);
+      verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate");
+      verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.PRAGMA, "no-cache");
+      verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.EXPIRES, ResponseHeaders.EXPIRES_IN_PAST);
+   }
+
+   @Test
+   public void shouldWriteStubbedHeadersOnlyOnce_WhenStubbedHeadersOverrideMainHeaders() throws Exception {
+
+      final Map<String, String> stubbedHeaders = new LinkedHashMap<String, String>();
+      stubbedHeaders.put("content-type", "application/json");
+      stubbedHeaders.put("cache-control", "max-age=60");
+      stubbedHeaders.put("date", "Thu, 01 Jan 2015 00:00:00 GMT");
+      stubbedHeaders.put("x-custom", "yes");
+
+      final HttpServletResponse mockHttpServletResponse = Mockito.mock(HttpServletResponse.class);
+
+      ResponseHeaders.compile(stubbedHeaders).writeTo(mockHttpServletResponse);
+
+      verify(mockHttpServletResponse, times(1)).setHeader("content-type", "application/json;charset=UTF-8");
+      verify(mockHttpServletResponse, times(1)).setHeader("cache-control", "max-age=60");
+      verify(mockHttpServletResponse, times(1)).setHeader("date", "Thu, 01 Jan 2015 00:00:00 GMT");
+      verify(mockHttpServletResponse, times(1)).setHeader("x-custom", "yes");
+      verify(mockHttpServletResponse, times(1)).setHeader(HttpHeaders.SERVER, HandlerUtils.constructHeaderServerName());
+      verify(mockHttpServletResponse, never()).setHeader(eq(HttpHeaders.CONTENT_TYPE), anyString());
+      verify(mockHttpServletResponse, never()).setHeader(eq(HttpHeaders.CACHE_CONTROL), anyString());
+      verify(mockHttpServletResponse, never()).setHeader(eq(HttpHeaders.DATE), anyString());
+   }
+
+   @Test
+   public void shouldKeepStubbedCharset_WhenStubbedContentTypeHasCharset() throws Exception {
+
+      final Map<String, String> stubbedHeaders = new LinkedHashMap<String, String>();
+      stubbedHeaders.put("Content-Type", "text/plain; charset=ISO-8859-1");
+
+      final HttpServletResponse mockHttpServletResponse = Mockito.mock(HttpServletResponse.class);
+
+      ResponseHeaders.compile(stubbedHeaders).writeTo(mockHttpServletResponse);
+
+      verify(mockHttpServletResponse, times(1)).setHeader("Content-Type", "text/plain; charset=ISO-8859-1");
+      verify(mockHttpServletResponse, times(1)).setHeader(anyString(), eq("text/plain; charset=ISO-8859-1"));
+   }
+
+   @Test
+   public void shouldFlagBodyEncodingStubbed_WhenContentEncodingOrLengthStubbed() throws Exception {
+
+      final Map<String, String> stubbedHeaders = new LinkedHashMap<String, String>();
+      stubbedHeaders.put("x-custom", "yes");
+      Assert.assertFalse(ResponseHeaders.compile(stubbedHeaders).isBodyEncodingStubbed());
+
+      stubbedHeaders.put("Content-Length", "10");
+      Assert.assertTrue(ResponseHeaders.compile(stubbedHeaders).isBodyEncodingStubbed());
+
+      stubbedHeaders.clear();
+      stubbedHeaders.put("content-encoding", "gzip");
+      Assert.assertTrue(ResponseHeaders.compile(stubbedHeaders).isBodyEncodingStubbed());
+   }
+}
@@ -2,6 +2,7 @@ package by.stub.yaml.stubs;
 
 import by.stub.builder.stubs.StubRequestBuilder;
 import by.stub.cli.CommandLineInterpreter;
+import by.stub.utils.FileUtils;
 import by.stub.utils.StringUtils;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -58,6 +59,25 @@ public class StubRequestTest {
       assertThat(stubbedRequest.getPostBody(), is(equalTo(fileContent)));
    }
 
+   @Test
+   public void shouldGetPostBodyHash_WhenFileSetAfterPost() throws Exception {
+
+      final String fileContent = "Hello\r\nWorld!";
+      final StubRequest stubbedRequest =
+         BUILDER.withUrl("/invoice/789")
+            .withPost("Hello")
+            .withMethodGet().build();
+
+      assertThat(stubbedRequest.getPostBodyHash(), is(equalTo("Hello".hashCode())));
+
+      stubbedRequest.setFile(fileContent.getBytes(StringUtils.utf8Charset()));
+      stubbedRequest.precompute();
+
+      final String expectedPostBody = String.format("Hello%sWorld!", FileUtils.LINE_SEPARATOR);
+      assertThat(stubbedRequest.getPostBody(), is(equalTo(expectedPostBody)));
+      assertThat(stubbedRequest.getPostBodyHash(), is(equalTo(expectedPostBody.hashCode())));
+   }
+
    @Test
    public void shouldNotMatchStubRequest_WhenDifferentMethod() throws Exception {
 
@@ -155,6 +175,53 @@ public class StubRequestTest {
    }
 
 
+   @Test
+   public void shouldMatchStubRequest_WhenUrlMatchesStubbedRegex() throws Exception {
+
+      final StubRequest stubbedRequest = BUILDER.withUrl("^/invoice/[0-9]+$").withMethodGet().build();
+      stubbedRequest.precompute();
+
+      assertThat(BUILDER.withUrl("/invoice/789").withMethodGet().build(), is(equalTo(stubbedRequest)));
+      assertThat(BUILDER.withUrl("/invoice/abc").withMethodGet().build(), is(not(equalTo(stubbedRequest))));
+      assertThat(BUILDER.withUrl("/invoice/789/items").withMethodGet().build(), is(not(equalTo(stubbedRequest))));
+   }
+
+   @Test
+   public void shouldMatchStubRequest_WhenUrlMatchesStubbedGlob() throws Exception {
+
+      final StubRequest segmentGlobRequest = BUILDER.withUrl("/invoice/*/items").withMethodGet().build();
+      segmentGlobRequest.precompute();
+
+      final StubRequest deepGlobRequest = BUILDER.withUrl("/invoice/**").withMethodGet().build();
+      deepGlobRequest.precompute();
+
+      assertThat(BUILDER.withUrl("/invoice/789/items").withMethodGet().build(), is(equalTo(segmentGlobRequest)));
+      assertThat(BUILDER.withUrl("/invoice/789/001/items").withMethodGet().build(), is(not(equalTo(segmentGlobRequest))));
+      assertThat(BUILDER.withUrl("/invoice/789/001/items").withMethodGet().build(), is(equalTo(deepGlobRequest)));
+      assertThat(BUILDER.withUrl("/invoices/789").withMethodGet().build(), is(not(equalTo(deepGlobRequest))));
+   }
+
+   @Test
+   public void shouldTreatStubbedUrlLiterally_WhenUrlIsNotPattern() throws Exception {
+
+      final StubRequest stubbedRequest = BUILDER.withUrl("/invoice/789.json").withMethodGet().build();
+      stubbedRequest.precompute();
+
+      assertThat(stubbedRequest.getUrlPattern() == null, is(true));
+      assertThat(BUILDER.withUrl("/invoice/789.json").withMethodGet().build(), is(equalTo(stubbedRequest)));
+      assertThat(BUILDER.withUrl("/invoice/789xjson").withMethodGet().build(), is(not(equalTo(stubbedRequest))));
+   }
+
+   @Test
+   public void shouldNotCompileUrlPattern_WhenUrlSetAfterPrecompute() throws Exception {
+
+      final StubRequest stubbedRequest = BUILDER.withUrl("/invoice/*").withMethodGet().build();
+      stubbedRequest.precompute();
+      stubbedRequest.setUrl("/invoice/*.pdf");
+
+      assertThat(stubbedRequest.getUrlPattern() == null, is(true));
+   }
+
    @Test
    public void shouldMatchStubRequest_WhenAllHeadersMatch() throws Exception {
 
@@ -1,11 +1,16 @@
 package by.stub.yaml.stubs;
 
 import by.stub.cli.CommandLineInterpreter;
+import by.stub.exception.Stubby4JException;
+import by.stub.utils.CompressionUtils;
+import by.stub.utils.FileContentCache;
 import by.stub.utils.StringUtils;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+
 /**
  * @author Alexander Zagniotov
  * @since 10/24/12, 10:49 AM
@@ -63,4 +68,121 @@ public class StubResponseTest {
 
       Assert.assertEquals("", StringUtils.utf8String(stubResponse.getResponseBody()));
    }
+
+   @Test
+   public void getResponseBodyBuffer_ShouldReturnEncodedBody_WhenBodySet() throws Exception {
+
+      final StubResponse stubResponse = new StubResponse();
+      stubResponse.setBody("this is some body: \u00e9");
+      stubResponse.precompute();
+
+      final ByteBuffer responseBodyBuffer = stubResponse.getResponseBodyBuffer();
+      final byte[] responseBody = new byte[responseBodyBuffer.remaining()];
+      responseBodyBuffer.get(responseBody);
+
+      Assert.assertEquals("this is some body: \u00e9", StringUtils.utf8String(responseBody));
+   }
+
+   @Test
+   public void getResponseBodyBuffer_ShouldShareEncodedBody_WithIndependentPositions() throws Exception {
+
+      final StubResponse stubResponse = new StubResponse();
+      stubResponse.setBody("this is some body");
+      stubResponse.precompute();
+
+      final ByteBuffer consumedBuffer = stubResponse.getResponseBodyBuffer();
+      consumedBuffer.position(consumedBuffer.limit());
+      final ByteBuffer otherBuffer = stubResponse.getResponseBodyBuffer();
+
+      Assert.assertSame(consumedBuffer.array(), otherBuffer.array());
+      Assert.assertEquals("this is some body".length(), otherBuffer.remaining());
+   }
+
+   @Test
+   public void getResponseBodyBuffer_ShouldReturnNewBody_WhenBodyChangedAfterPrecompute() throws Exception {
+
+      final StubResponse stubResponse = new StubResponse();
+      stubResponse.setBody("this is some body");
+      stubResponse.precompute();
+      stubResponse.setFile("this is file content".getBytes(StringUtils.UTF_8));
+
+      Assert.assertEquals("this is file content".length(), stubResponse.getResponseBodyBuffer().remaining());
+   }
+
+   @Test
+   public void getResponseBodyBuffer_ShouldNotCopyMappedFile_WhenMappedFileSet() throws Exception {
+
+      final ByteBuffer mappedFile = ByteBuffer.allocateDirect(3);
+      mappedFile.put(new byte[]{1, 2, 3}).flip();
+
+      final StubResponse stubResponse = new StubResponse();
+      stubResponse.setBody("this is some body");
+      stubResponse.setMappedFile(mappedFile);
+      stubResponse.precompute();
+
+      final ByteBuffer responseBodyBuffer = stubResponse.getResponseBodyBuffer();
+
+      Assert.assertTrue(responseBodyBuffer.isDirect());
+      Assert.assertEquals(3, responseBodyBuffer.remaining());
+      Assert.assertArrayEquals(new byte[]{1, 2, 3}, stubResponse.getResponseBody());
+   }
+
+   @Test
+   public void getResponseBodyBuffer_ShouldLoadCachedFileWhenSent_WhenCachedFileSet() throws Exception {
+
+      final FileContentCache fileContentCache = new FileContentCache(1024);
+
+      final StubResponse stubResponse = new StubResponse();
+      stubResponse.setCachedFile(fileContentCache, "not-yet-existing-response.bin");
+      stubResponse.precompute();
+
+      Assert.assertEquals(0, fileContentCache.getMisses());
+
+      try {
+         stubResponse.getResponseBodyBuffer();
+         Assert.fail("Expected file not to be found when response body is requested");
+      } catch (final Stubby4JException ex) {
+         Assert.assertEquals(1, fileContentCache.getMisses());
+      }
+   }
+
+   @Test
+   public void getCompressedBodyBuffer_ShouldCompressBodyOnce_WhenRequestedRepeatedly() throws Exception {
+
+      final StringBuilder body = new StringBuilder();
+      for (int idx = 0; idx < 20; idx++) {
+         body.append("this is some body ");
+      }
+
+      final StubResponse stubResponse = new StubResponse();
+      stubResponse.setBody(body.toString());
+      stubResponse.precompute();
+
+      final ByteBuffer compressedBody = stubResponse.getCompressedBodyBuffer(CompressionUtils.GZIP);
+      final ByteBuffer otherCompressedBody = stubResponse.getCompressedBodyBuffer(CompressionUtils.GZIP);
+
+      Assert.assertTrue(stubResponse.isCompressible());
+      Assert.assertSame(compressedBody.array(), otherCompressedBody.array());
+      Assert.assertTrue(compressedBody.remaining() < stubResponse.getResponseBodyBuffer().remaining());
+      Assert.assertNotSame(compressedBody.array(), stubResponse.getCompressedBodyBuffer(CompressionUtils.DEFLATE).array());
+   }
+
+   @Test
+   public void getCompressedBodyBuffer_ShouldReturnNull_WhenCompressedBodyNotSmaller() throws Exception {
+
+      final StubResponse stubResponse = new StubResponse();
+      stubResponse.setBody("OK");
+
+      Assert.assertNull(stubResponse.getCompressedBodyBuffer(CompressionUtils.GZIP));
+   }
+
+   @Test
+   public void isCompressible_ShouldReturnFalse_WhenContentEncodingStubbed() throws Exception {
+
+      final StubResponse stubResponse = new StubResponse();
+      stubResponse.setBody("this is some body");
+      stubResponse.getHeaders().put("Content-Encoding", "gzip");
+
+      Assert.assertFalse(stubResponse.isCompressible());
+   }
 }